@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+
+##
+# This script extracts the shortest paths from the available networks in
+# shards. Every shard is computed by a separate process, here all on this
+# machine, the shards can also be run on different machines sharing the
+# repository folder. The graph snapshot is built before the shards are
+# started, and the shards are merged once all are finished.
+##
+
+
+## Parameters
+
+# Repository folder
+repo=/mnt/work/marc/pap/github/PathFinder
+
+# Number of shards
+nShards=${1:-4}
+
+# Execution parameters per shard
+nThreads=8
+
+
+## Functions
+
+
+## Script
+
+cd $repo
+
+jar=$repo/bin/PathFinder-0.0.1/PathFinder-0.0.1.jar
+
+# Build or validate the graph snapshot once, the shards then only read it
+java -Xmx30G -cp $jar no.uib.pap.pathfinder.cmd.MakeGraphSnapshot || exit 1
+
+# Compute the shards
+pids=()
+for ((shard=0; shard<nShards; shard++))
+do
+    java -XX:MaxDirectMemorySize=15g -Xmx30G -cp $jar no.uib.pap.pathfinder.cmd.ExportShortestPathMatrix $nThreads $shard $nShards &
+    pids+=($!)
+done
+
+failed=0
+for pid in ${pids[@]}
+do
+    wait $pid || failed=1
+done
+
+if [ $failed -ne 0 ]
+then
+    echo "A shard failed, rerun the script to resume from the checkpoints."
+    exit 1
+fi
+
+# Merge the shards
+java -XX:MaxDirectMemorySize=15g -Xmx30G -cp $jar no.uib.pap.pathfinder.cmd.MergeShortestPathMatrix $nShards
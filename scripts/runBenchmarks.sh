@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+
+##
+# This script builds and runs the JMH benchmarks, results are stored per commit
+# to allow comparing commits.
+##
+
+
+## Parameters
+
+# Repository folder
+repo=$(cd "$(dirname "$0")/.." && pwd)
+
+# Benchmarks to run, regular expression, all by default
+benchmarks=${1:-.*}
+
+
+## Script
+
+cd $repo
+
+mvn -B -Pbenchmark package -DskipTests
+
+commit=$(git rev-parse --short HEAD)
+mkdir -p target/benchmark-results
+
+java -jar target/benchmarks.jar "$benchmarks" -rf json -rff target/benchmark-results/$commit.json
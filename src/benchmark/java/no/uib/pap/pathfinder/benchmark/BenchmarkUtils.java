@@ -0,0 +1,36 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.File;
+
+/**
+ * Utilities for the benchmarks.
+ *
+ * @author Marc Vaudel
+ */
+public class BenchmarkUtils {
+
+    /**
+     * Deletes a file or a folder and its content.
+     *
+     * @param file the file or folder to delete
+     */
+    public static void delete(File file) {
+
+        File[] children = file.listFiles();
+
+        if (children != null) {
+
+            for (File child : children) {
+
+                delete(child);
+
+            }
+        }
+
+        if (!file.delete()) {
+
+            file.deleteOnExit();
+
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import no.uib.pap.pathfinder.SeedOrder;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the computation of the path matrix, from the search of the seeds
+ * to the final path file.
+ *
+ * @author Marc Vaudel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ComputeMatrixBenchmark {
+
+    /**
+     * The number of vertices.
+     */
+    @Param({"500", "1000"})
+    public int nVertices;
+    /**
+     * The average degree of the vertices.
+     */
+    @Param({"10"})
+    public int averageDegree;
+    /**
+     * The degree distribution.
+     */
+    @Param({SyntheticGraphs.UNIFORM, SyntheticGraphs.POWER_LAW})
+    public String distribution;
+    /**
+     * The order in which the seeds are scheduled.
+     */
+    @Param({"INDEX", "DEGREE", "TARGETS", "RANDOM", "LOCALITY"})
+    public SeedOrder seedOrder;
+    /**
+     * The folder where to store the files.
+     */
+    private File folder;
+    /**
+     * The graph.
+     */
+    private CsrGraph graph;
+    /**
+     * The file where to store the paths.
+     */
+    private File pathFile;
+
+    /**
+     * Builds the synthetic graph.
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the graph
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        folder = Files.createTempDirectory("pathfinder_matrix").toFile();
+
+        File dataFrame = new File(folder, "graph.gz");
+        SyntheticGraphs.writeDataFrame(dataFrame, nVertices, averageDegree, distribution);
+
+        graph = CsrGraph.fromGraph(NetworkPool.getGraphFromDataFrame(dataFrame, false), false);
+
+        pathFile = new File(folder, "paths");
+
+    }
+
+    /**
+     * Deletes the path file of the previous invocation.
+     */
+    @Setup(Level.Invocation)
+    public void deletePathFile() {
+
+        pathFile.delete();
+
+    }
+
+    /**
+     * Deletes the files.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        BenchmarkUtils.delete(folder);
+
+    }
+
+    /**
+     * Computes the path matrix using all available processors.
+     */
+    @Benchmark
+    public void computeMatrix() {
+
+        ShortestPath shortestPath = new ShortestPath(graph, pathFile);
+        shortestPath.setSeedOrder(seedOrder);
+        shortestPath.computeMatrix(Runtime.getRuntime().availableProcessors());
+
+    }
+}
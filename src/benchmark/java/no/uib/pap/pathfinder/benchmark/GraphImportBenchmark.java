@@ -0,0 +1,90 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the import of a graph from an iGraph data frame.
+ *
+ * @author Marc Vaudel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class GraphImportBenchmark {
+
+    /**
+     * The number of vertices.
+     */
+    @Param({"1000", "10000"})
+    public int nVertices;
+    /**
+     * The average degree of the vertices.
+     */
+    @Param({"10", "50"})
+    public int averageDegree;
+    /**
+     * The degree distribution.
+     */
+    @Param({SyntheticGraphs.UNIFORM, SyntheticGraphs.POWER_LAW})
+    public String distribution;
+    /**
+     * The data frame file.
+     */
+    private File dataFrame;
+
+    /**
+     * Writes the synthetic graph.
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the graph
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        dataFrame = File.createTempFile("pathfinder_graph", ".gz");
+        SyntheticGraphs.writeDataFrame(dataFrame, nVertices, averageDegree, distribution);
+
+    }
+
+    /**
+     * Deletes the synthetic graph.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        dataFrame.delete();
+
+    }
+
+    /**
+     * Imports the graph.
+     *
+     * @return the graph
+     */
+    @Benchmark
+    public Graph importGraph() {
+
+        return NetworkPool.getGraphFromDataFrame(dataFrame, false);
+
+    }
+}
@@ -0,0 +1,204 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks path lookups in a path file.
+ *
+ * @author Marc Vaudel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PathProviderBenchmark {
+
+    /**
+     * Random access to the paths.
+     */
+    public static final String RANDOM = "random";
+    /**
+     * Access to the paths in the order of the file.
+     */
+    public static final String SEQUENTIAL = "sequential";
+    /**
+     * Random access skewed towards the vertices of low index, i.e. the hubs.
+     */
+    public static final String SKEWED = "skewed";
+    /**
+     * The number of vertices.
+     */
+    @Param({"1000", "3000"})
+    public int nVertices;
+    /**
+     * The average degree of the vertices.
+     */
+    @Param({"10"})
+    public int averageDegree;
+    /**
+     * The degree distribution.
+     */
+    @Param({SyntheticGraphs.UNIFORM, SyntheticGraphs.POWER_LAW})
+    public String distribution;
+    /**
+     * The access pattern.
+     */
+    @Param({RANDOM, SEQUENTIAL, SKEWED})
+    public String access;
+    /**
+     * The capacity of the path cache, 0 for no cache.
+     */
+    @Param({"0", "65536"})
+    public int cacheSize;
+    /**
+     * The folder where to store the files.
+     */
+    private File folder;
+    /**
+     * The path provider.
+     */
+    private PathProvider pathProvider;
+    /**
+     * The start vertices of the queried paths.
+     */
+    private int[] from;
+    /**
+     * The end vertices of the queried paths.
+     */
+    private int[] to;
+    /**
+     * The index of the next query.
+     */
+    private int next = 0;
+
+    /**
+     * Computes the path file and the queries.
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the files
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        folder = Files.createTempDirectory("pathfinder_provider").toFile();
+
+        File dataFrame = new File(folder, "graph.gz");
+        SyntheticGraphs.writeDataFrame(dataFrame, nVertices, averageDegree, distribution);
+
+        Graph graph = NetworkPool.getGraphFromDataFrame(dataFrame, false);
+
+        File pathFile = new File(folder, "paths");
+        ShortestPath shortestPath = new ShortestPath(graph, pathFile);
+        shortestPath.computeMatrix(Runtime.getRuntime().availableProcessors());
+
+        pathProvider = new PathProvider(pathFile);
+        pathProvider.setCache(cacheSize);
+
+        int nQueries = 1 << 20;
+        from = new int[nQueries];
+        to = new int[nQueries];
+
+        if (RANDOM.equals(access)) {
+
+            Random random = new Random(SyntheticGraphs.SEED);
+
+            for (int i = 0; i < nQueries; i++) {
+
+                from[i] = random.nextInt(nVertices);
+                to[i] = random.nextInt(nVertices);
+
+            }
+
+        } else if (SKEWED.equals(access)) {
+
+            Random random = new Random(SyntheticGraphs.SEED);
+
+            for (int i = 0; i < nQueries; i++) {
+
+                from[i] = (int) (Math.pow(random.nextDouble(), 4) * nVertices);
+                to[i] = (int) (Math.pow(random.nextDouble(), 4) * nVertices);
+
+            }
+
+        } else {
+
+            int i = 0;
+
+            for (int j = 1; j < nVertices && i < nQueries; j++) {
+
+                for (int k = 0; k < j && i < nQueries; k++) {
+
+                    from[i] = k;
+                    to[i] = j;
+                    i++;
+
+                }
+            }
+
+            int nPaths = i;
+
+            for (; i < nQueries; i++) {
+
+                from[i] = from[i % nPaths];
+                to[i] = to[i % nPaths];
+
+            }
+        }
+    }
+
+    /**
+     * Closes the provider and deletes the files.
+     *
+     * @throws IOException exception thrown if an error occurred while closing
+     * the provider
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        pathProvider.close();
+
+        BenchmarkUtils.delete(folder);
+
+    }
+
+    /**
+     * Reads the next path.
+     *
+     * @return the path
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the file
+     */
+    @Benchmark
+    public Path getPath() throws IOException {
+
+        int i = next++ & (from.length - 1);
+
+        return pathProvider.getPath(from[i], to[i]);
+
+    }
+}
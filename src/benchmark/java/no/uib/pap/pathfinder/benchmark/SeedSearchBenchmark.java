@@ -0,0 +1,125 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import no.uib.pap.pathfinder.Dijkstra;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.SeedPathFile;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the computation of the shortest paths from a single seed.
+ *
+ * @author Marc Vaudel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SeedSearchBenchmark {
+
+    /**
+     * The number of vertices.
+     */
+    @Param({"1000", "10000"})
+    public int nVertices;
+    /**
+     * The average degree of the vertices.
+     */
+    @Param({"10", "50"})
+    public int averageDegree;
+    /**
+     * The degree distribution.
+     */
+    @Param({SyntheticGraphs.UNIFORM, SyntheticGraphs.POWER_LAW})
+    public String distribution;
+    /**
+     * The folder where to store the files.
+     */
+    private File folder;
+    /**
+     * The graph.
+     */
+    private CsrGraph graph;
+    /**
+     * The search engine.
+     */
+    private Dijkstra dijkstra;
+    /**
+     * The seeds to search from, drawn at random.
+     */
+    private int[] origins;
+    /**
+     * The index of the next seed.
+     */
+    private int next = 0;
+
+    /**
+     * Builds the synthetic graph.
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the graph
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        folder = Files.createTempDirectory("pathfinder_seed").toFile();
+
+        File dataFrame = new File(folder, "graph.gz");
+        SyntheticGraphs.writeDataFrame(dataFrame, nVertices, averageDegree, distribution);
+
+        graph = CsrGraph.fromGraph(NetworkPool.getGraphFromDataFrame(dataFrame, false), false);
+        dijkstra = new Dijkstra(graph);
+
+        Random random = new Random(SyntheticGraphs.SEED);
+        origins = new int[1024];
+
+        for (int i = 0; i < origins.length; i++) {
+
+            origins[i] = random.nextInt(nVertices);
+
+        }
+    }
+
+    /**
+     * Deletes the files.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        BenchmarkUtils.delete(folder);
+
+    }
+
+    /**
+     * Computes the shortest paths from the next seed.
+     *
+     * @return the shortest path tree of the seed
+     */
+    @Benchmark
+    public SeedPathFile computeShortestPaths() {
+
+        int origin = origins[next++ & (origins.length - 1)];
+
+        return dijkstra.computeShortestPaths(origin, graph.getNVertices());
+
+    }
+}
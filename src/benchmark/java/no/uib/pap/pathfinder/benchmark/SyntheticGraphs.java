@@ -0,0 +1,160 @@
+package no.uib.pap.pathfinder.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import static no.uib.pap.pathfinder.util.Utils.encoding;
+
+/**
+ * Generates synthetic graphs as iGraph data frames. The generation is seeded
+ * so that the same parameters always give the same graph.
+ *
+ * @author Marc Vaudel
+ */
+public class SyntheticGraphs {
+
+    /**
+     * Uniform degree distribution, random edges on top of a random spanning
+     * tree.
+     */
+    public static final String UNIFORM = "uniform";
+    /**
+     * Power law degree distribution, preferential attachment.
+     */
+    public static final String POWER_LAW = "powerLaw";
+    /**
+     * The seed of the random generator.
+     */
+    public static final long SEED = 20180910l;
+
+    /**
+     * Writes a synthetic connected undirected graph to an iGraph data frame.
+     *
+     * @param file the file where to write the graph
+     * @param nVertices the number of vertices
+     * @param averageDegree the average degree of the vertices
+     * @param distribution the degree distribution, UNIFORM or POWER_LAW
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the file
+     */
+    public static void writeDataFrame(File file, int nVertices, int averageDegree, String distribution) throws IOException {
+
+        Random random = new Random(SEED);
+
+        int nEdges = nVertices * averageDegree / 2;
+        HashSet<Long> edges = new HashSet<>(2 * nEdges);
+
+        // Endpoints of the edges, used to draw vertices proportionally to their degree
+        int[] endPoints = new int[2 * nEdges + 2 * nVertices];
+        int nEndPoints = 0;
+
+        try (BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), encoding))) {
+
+            bw.write("from to weight");
+            bw.newLine();
+
+            for (int vertex = 1; vertex < nVertices; vertex++) {
+
+                int edgesPerVertex = POWER_LAW.equals(distribution) ? Math.max(1, averageDegree / 2) : 1;
+
+                for (int i = 0; i < edgesPerVertex && i < vertex; i++) {
+
+                    int other = POWER_LAW.equals(distribution) && nEndPoints > 0
+                            ? endPoints[random.nextInt(nEndPoints)]
+                            : random.nextInt(vertex);
+
+                    if (addEdge(edges, vertex, other)) {
+
+                        writeEdge(bw, vertex, other, random);
+
+                        if (nEndPoints + 2 <= endPoints.length) {
+
+                            endPoints[nEndPoints++] = vertex;
+                            endPoints[nEndPoints++] = other;
+
+                        }
+                    }
+                }
+            }
+
+            while (edges.size() < nEdges) {
+
+                int vertex1 = random.nextInt(nVertices);
+                int vertex2 = POWER_LAW.equals(distribution)
+                        ? endPoints[random.nextInt(nEndPoints)]
+                        : random.nextInt(nVertices);
+
+                if (addEdge(edges, vertex1, vertex2)) {
+
+                    writeEdge(bw, vertex1, vertex2, random);
+
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an edge to the set of edges if not already present.
+     *
+     * @param edges the set of edges
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     *
+     * @return a boolean indicating whether the edge was added
+     */
+    private static boolean addEdge(HashSet<Long> edges, int vertex1, int vertex2) {
+
+        if (vertex1 == vertex2) {
+            return false;
+        }
+
+        long low = Math.min(vertex1, vertex2);
+        long high = Math.max(vertex1, vertex2);
+
+        return edges.add((high << 32) | low);
+
+    }
+
+    /**
+     * Writes an edge with a random weight.
+     *
+     * @param bw the writer
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param random the random generator
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the file
+     */
+    private static void writeEdge(BufferedWriter bw, int vertex1, int vertex2, Random random) throws IOException {
+
+        double weight = 1.0 + random.nextInt(1000) / 1000.0;
+
+        bw.write(getName(vertex1));
+        bw.write(' ');
+        bw.write(getName(vertex2));
+        bw.write(' ');
+        bw.write(Double.toString(weight));
+        bw.newLine();
+
+    }
+
+    /**
+     * Returns the name of a synthetic vertex.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the name of a synthetic vertex
+     */
+    public static String getName(int vertex) {
+
+        return "V" + vertex;
+
+    }
+}
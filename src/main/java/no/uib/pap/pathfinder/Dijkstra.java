@@ -0,0 +1,163 @@
+package no.uib.pap.pathfinder;
+
+import java.util.Arrays;
+import no.uib.pap.pathfinder.io.path.SeedPathFile;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.util.IndexedHeap;
+
+/**
+ * Single source shortest path search using Dijkstra's algorithm on an indexed
+ * heap. Paths are compared by weight, then by number of vertices. The number
+ * of vertices in a path is not limited. The search stops as soon as the paths
+ * to all targets of the seed are final.
+ *
+ * @author Marc Vaudel
+ */
+public class Dijkstra {
+
+    /**
+     * The graph to navigate.
+     */
+    private final CsrGraph graph;
+    /**
+     * The number of vertices in the graph.
+     */
+    private final int nVertices;
+    /**
+     * The heap of vertices to visit.
+     */
+    private final IndexedHeap heap;
+    /**
+     * The weight of the best path found to every vertex.
+     */
+    private final double[] weights;
+    /**
+     * The number of vertices in the best path found to every vertex, -1 if
+     * not reached.
+     */
+    private final int[] lengths;
+    /**
+     * The predecessor of every vertex in the best path found, -1 for the
+     * origin and vertices not reached.
+     */
+    private final int[] predecessors;
+    /**
+     * Boolean indicating whether the shortest path to a vertex is final.
+     */
+    private final boolean[] settled;
+
+    /**
+     * Constructor.
+     *
+     * @param graph the graph to navigate
+     */
+    public Dijkstra(CsrGraph graph) {
+
+        this.graph = graph;
+
+        nVertices = graph.getNVertices();
+
+        heap = new IndexedHeap(nVertices);
+        weights = new double[nVertices];
+        lengths = new int[nVertices];
+        predecessors = new int[nVertices];
+        settled = new boolean[nVertices];
+
+    }
+
+    /**
+     * Computes the shortest paths from the given origin to its targets. The
+     * returned seed is a view on the arrays of this search, valid until the
+     * next search.
+     *
+     * @param origin the index of the origin vertex
+     * @param nTargets the number of targets, the targets are the vertices with
+     * a lower index
+     *
+     * @return the shortest path tree of the seed
+     */
+    public SeedPathFile computeShortestPaths(int origin, int nTargets) {
+
+        if (nTargets == 0) {
+
+            reset();
+
+        } else {
+
+            search(origin, nTargets);
+
+        }
+
+        return new SeedPathFile(origin, nTargets, weights, lengths, predecessors);
+
+    }
+
+    /**
+     * Resets the arrays of the search.
+     */
+    private void reset() {
+
+        Arrays.fill(lengths, -1);
+        Arrays.fill(predecessors, -1);
+        Arrays.fill(settled, false);
+        heap.clear();
+
+    }
+
+    /**
+     * Runs the search from the given origin until the paths to all targets are
+     * final.
+     *
+     * @param origin the index of the origin vertex
+     * @param nTargets the number of targets, the targets are the vertices with
+     * a lower index
+     */
+    private void search(int origin, int nTargets) {
+
+        reset();
+
+        weights[origin] = 0.0;
+        lengths[origin] = 1;
+        heap.offer(origin, 0.0, 1);
+
+        int nSettledTargets = 0;
+
+        while (!heap.isEmpty()) {
+
+            int current = heap.poll();
+            settled[current] = true;
+
+            if (current < nTargets && ++nSettledTargets == nTargets) {
+                break;
+            }
+
+            double currentWeight = weights[current];
+            int totalLength = lengths[current] + 1;
+
+            int[] neighbors = graph.neighbors;
+            int end = graph.offsets[current + 1];
+
+            for (int edge = graph.offsets[current]; edge < end; edge++) {
+
+                int neighbor = neighbors[edge];
+
+                if (!settled[neighbor]) {
+
+                    double totalWeight = graph.getWeight(edge) + currentWeight;
+                    int neighborLength = lengths[neighbor];
+
+                    if (neighborLength == -1
+                            || weights[neighbor] > totalWeight
+                            || weights[neighbor] == totalWeight && neighborLength > totalLength) {
+
+                        weights[neighbor] = totalWeight;
+                        lengths[neighbor] = totalLength;
+                        predecessors[neighbor] = current;
+                        heap.offer(neighbor, totalWeight, totalLength);
+
+                    }
+                }
+            }
+        }
+    }
+}
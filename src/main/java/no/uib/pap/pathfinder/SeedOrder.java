@@ -0,0 +1,172 @@
+package no.uib.pap.pathfinder;
+
+import java.util.Random;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.util.SortUtils;
+
+/**
+ * The orders in which the seeds of the path matrix can be scheduled.
+ *
+ * @author Marc Vaudel
+ */
+public enum SeedOrder {
+
+    /**
+     * Seeds in the order of the index of their origin.
+     */
+    INDEX,
+    /**
+     * Seeds by decreasing degree of their origin, ties in the order of the
+     * index. Note that parsed graphs index vertices by decreasing degree, this
+     * order is then the same as INDEX.
+     */
+    DEGREE,
+    /**
+     * Seeds by decreasing number of targets, i.e. by decreasing index of
+     * their origin as in undirected graphs the seed of a vertex resolves the
+     * paths to the vertices of lower index. Scheduling the most expensive
+     * seeds first limits the time where a single thread finishes a large
+     * seed while the others are idle. In directed graphs all seeds have the
+     * same number of targets.
+     */
+    TARGETS,
+    /**
+     * Seeds in random order, the same for every run.
+     */
+    RANDOM,
+    /**
+     * Seeds in breadth-first order from the vertex of highest degree, every
+     * connected component after the other. Seeds scheduled together are
+     * neighbors and explore the same parts of the graph, which maximizes the
+     * reuse of the graph in the processor caches.
+     */
+    LOCALITY;
+
+    /**
+     * The seed of the random order.
+     */
+    public static final long RANDOM_SEED = 4242l;
+
+    /**
+     * Returns the origins of all the vertices of the graph in this order.
+     *
+     * @param graph the graph
+     *
+     * @return the origins in this order
+     */
+    public int[] getOrder(CsrGraph graph) {
+
+        int nVertices = graph.getNVertices();
+        int[] order = new int[nVertices];
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            order[vertex] = vertex;
+
+        }
+
+        switch (this) {
+
+            case INDEX:
+
+                return order;
+
+            case DEGREE:
+
+                long[] keys = new long[nVertices];
+
+                for (int vertex = 0; vertex < nVertices; vertex++) {
+
+                    keys[vertex] = ((long) -graph.getDegree(vertex) << 32) + vertex;
+
+                }
+
+                SortUtils.sort(keys, order);
+
+                return order;
+
+            case TARGETS:
+
+                for (int vertex = 0; vertex < nVertices; vertex++) {
+
+                    order[vertex] = nVertices - 1 - vertex;
+
+                }
+
+                return order;
+
+            case RANDOM:
+
+                Random random = new Random(RANDOM_SEED);
+
+                for (int i = nVertices - 1; i > 0; i--) {
+
+                    int j = random.nextInt(i + 1);
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+
+                }
+
+                return order;
+
+            case LOCALITY:
+
+                return getBreadthFirstOrder(graph);
+
+            default:
+
+                throw new IllegalArgumentException("Unknown seed order " + this + ".");
+
+        }
+    }
+
+    /**
+     * Returns the vertices in breadth-first order, starting from the vertex
+     * of highest degree not visited yet for every connected component.
+     *
+     * @param graph the graph
+     *
+     * @return the vertices in breadth-first order
+     */
+    private static int[] getBreadthFirstOrder(CsrGraph graph) {
+
+        int nVertices = graph.getNVertices();
+        int[] byDegree = DEGREE.getOrder(graph);
+
+        int[] order = new int[nVertices];
+        boolean[] visited = new boolean[nVertices];
+        int nVisited = 0;
+
+        for (int start : byDegree) {
+
+            if (!visited[start]) {
+
+                // The order array is used as queue
+                int head = nVisited;
+                order[nVisited++] = start;
+                visited[start] = true;
+
+                while (head < nVisited) {
+
+                    int vertex = order[head++];
+
+                    for (int edge = graph.offsets[vertex]; edge < graph.offsets[vertex + 1]; edge++) {
+
+                        int neighbor = graph.neighbors[edge];
+
+                        if (!visited[neighbor]) {
+
+                            order[nVisited++] = neighbor;
+                            visited[neighbor] = true;
+
+                        }
+                    }
+                }
+            }
+        }
+
+        return order;
+
+    }
+}
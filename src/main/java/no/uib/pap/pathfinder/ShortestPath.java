@@ -1,23 +1,42 @@
 package no.uib.pap.pathfinder;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.uib.pap.pathfinder.io.path.CheckpointFile;
+import no.uib.pap.pathfinder.io.path.DistanceFile;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
 import no.uib.pap.pathfinder.io.path.PathFile;
+import no.uib.pap.pathfinder.io.path.PathFileHeader;
+import no.uib.pap.pathfinder.io.path.RecordEncoding;
 import no.uib.pap.pathfinder.io.path.SeedPathFile;
+import no.uib.pap.pathfinder.io.path.TreeFile;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
 import no.uib.pap.pathfinder.model.graph.Graph;
-import no.uib.pap.pathfinder.model.graph.Path;
-import no.uib.pap.pathfinder.model.graph.Vertex;
 
 /**
  * This class navigates the graph in all directions and stores the shortest
- * paths. A file is used as back-end to store the paths.
+ * paths. A file is used as back-end to store the paths. For directed graphs
+ * the paths are stored in a square matrix, one path per ordered pair of
+ * vertices, for undirected graphs in a triangular matrix, one path per pair.
+ *
+ * Every seed owns a distinct set of pairs in the matrix, the paths of a seed
+ * are written to the final file as soon as the seed is finished, no
+ * intermediate file is needed. If a checkpoint file is set, finished seeds
+ * are recorded in it and a rerun on the same graph resumes from the seeds not
+ * finished.
+ *
+ * The computation can be split in shards, every shard computing the seeds
+ * whose index modulo the number of shards equals the index of the shard into
+ * a partial file. The partial files are assembled using PathFileMerger.
+ *
+ * The search does not limit the number of vertices in a path: every stored
+ * path is the lightest path, ties broken by number of vertices. If one of
+ * these paths has maxDepth - 2 vertices or more, the computation fails with a
+ * "Long path" error. A heavier path within the limit is not used instead.
  *
  * @author Marc Vaudel
  */
@@ -26,368 +45,822 @@ public class ShortestPath {
     /**
      * The graph to compute the matrix from.
      */
-    private final Graph graph;
+    private final CsrGraph graph;
     /**
-     * Map of the seeds that have been explored.
+     * The path of the file where paths should be stored, null if the paths
+     * are only stored as trees.
      */
-    private final HashMap<Integer, SeedPathFile> finishedSeeds;
+    private final File resultFile;
     /**
-     * The path of the file where paths should be stored.
+     * The file where to store the distances, null if not needed.
      */
-    private final File resultFile;
+    private File distanceFile = null;
     /**
-     * The folder where to store intermediate files.
+     * Boolean indicating whether the distances should be stored in single
+     * precision.
      */
-    public final File tempFolder;
+    private boolean singlePrecisionDistances = false;
+    /**
+     * The file where to store the shortest path trees, null if not needed.
+     */
+    private File treeFile = null;
+    /**
+     * Boolean indicating whether the weights of the trees should be stored in
+     * single precision.
+     */
+    private boolean singlePrecisionTrees = false;
     /**
      * The number of vertices in the graph.
      */
     private final int nVertices;
     /**
-     * Basic progress counter.
+     * Boolean indicating whether the graph is undirected. If true, the seed of
+     * every vertex only resolves the paths to vertices of lower index, the
+     * paths to vertices of higher index being resolved by their own seed.
+     */
+    private final boolean undirected;
+    /**
+     * Boolean indicating whether the graph is treated as directed, i.e.
+     * whether the paths in both directions are stored.
+     */
+    private final boolean directed;
+    /**
+     * The layout of the path matrix.
+     */
+    private final MatrixLayout layout;
+    /**
+     * The file where to record the finished seeds, null if not needed.
+     */
+    private File checkpointFile = null;
+    /**
+     * The checkpoint, null if not computing or not needed.
+     */
+    private CheckpointFile checkpoint = null;
+    /**
+     * The minimal time between two writes of the checkpoint in milliseconds.
+     */
+    private long checkpointInterval = 60000l;
+    /**
+     * The seeds written to the result files but not recorded in the
+     * checkpoint yet, null if not computing or not needed.
+     */
+    private int[] pendingSeeds = null;
+    /**
+     * The number of seeds pending.
+     */
+    private int nPending = 0;
+    /**
+     * The time of the last write of the checkpoint in milliseconds.
+     */
+    private long lastCheckpoint = 0l;
+    /**
+     * The file where the paths are stored, null if not computing.
+     */
+    private PathFile pathFile = null;
+    /**
+     * The file where the distances are stored, null if not computing or not
+     * needed.
+     */
+    private DistanceFile distances = null;
+    /**
+     * The file where the shortest path trees are stored, null if not
+     * computing or not needed.
+     */
+    private TreeFile trees = null;
+    /**
+     * The scratch memory of every worker thread, reused across seeds, null if
+     * not computing.
+     */
+    private ThreadLocal<Scratch> scratch = null;
+    /**
+     * The index of the shard to compute.
+     */
+    private int shardIndex = 0;
+    /**
+     * The number of shards.
+     */
+    private int shardCount = 1;
+    /**
+     * The encoding of the path records.
+     */
+    private RecordEncoding recordEncoding = RecordEncoding.PLAIN;
+    /**
+     * The order in which the seeds are scheduled.
+     */
+    private SeedOrder seedOrder = SeedOrder.INDEX;
+    /**
+     * The number of seeds to compute.
      */
-    private int progress = 0;
+    private int nSeeds;
     /**
-     * Boolean indicating whether the process crashed.
+     * The time spent on every seed in nanoseconds indexed by origin, from the
+     * start of the search to the end of the writing, 0 if not computed in the
+     * last run.
      */
-    private boolean crashed = false;
+    private long[] seedRuntimes = null;
     /**
-     * The maximal path length.
+     * The number of seeds finished.
+     */
+    private final AtomicInteger nFinished = new AtomicInteger();
+    /**
+     * The last progress displayed in per mille.
+     */
+    private final AtomicInteger progress = new AtomicInteger();
+    /**
+     * Boolean indicating whether the process was cancelled or crashed.
+     */
+    private volatile boolean cancelled = false;
+    /**
+     * The error of the first seed that crashed, null if none.
+     */
+    private volatile Throwable crash = null;
+    /**
+     * The maximal path length, shortest paths of maxDepth - 2 vertices or
+     * more make the computation fail.
      */
     public static final int maxDepth = 12;
 
     /**
-     * Constructor.
+     * Constructor, the graph is treated as directed if it is not symmetric.
      *
      * @param graph The graph to compute the matrix from.
      * @param pathFile The file where to save the paths.
      */
     public ShortestPath(Graph graph, File pathFile) {
 
+        this(CsrGraph.fromGraph(graph, false), pathFile);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graph The graph to compute the matrix from.
+     * @param pathFile The file where to save the paths.
+     * @param directed Boolean indicating whether the graph should be treated
+     * as directed.
+     */
+    public ShortestPath(Graph graph, File pathFile, boolean directed) {
+
+        this(CsrGraph.fromGraph(graph, false), pathFile, directed);
+
+    }
+
+    /**
+     * Constructor, the graph is treated as directed if it is not symmetric.
+     *
+     * @param graph The compact graph to compute the matrix from.
+     * @param pathFile The file where to save the paths.
+     */
+    public ShortestPath(CsrGraph graph, File pathFile) {
+
+        this(graph, pathFile, !graph.isSymmetric());
+
+    }
+
+    /**
+     * Constructor. If the graph is not treated as directed, only one path is
+     * stored per pair of vertices, from the vertex of lower index to the
+     * vertex of higher index.
+     *
+     * @param graph The compact graph to compute the matrix from.
+     * @param pathFile The file where to save the paths, null if the paths
+     * are only stored as trees.
+     * @param directed Boolean indicating whether the graph should be treated
+     * as directed.
+     */
+    public ShortestPath(CsrGraph graph, File pathFile, boolean directed) {
+
         this.graph = graph;
 
-        nVertices = graph.vertices.length;
+        nVertices = graph.getNVertices();
+
+        this.directed = directed;
+        undirected = !directed && graph.isSymmetric();
+        layout = directed ? MatrixLayout.SQUARE : MatrixLayout.TRIANGULAR;
 
         resultFile = pathFile;
 
-        tempFolder = new File(resultFile.getParent(), "temp");
+    }
+
+    /**
+     * Sets a file where to store the weight and number of hops of the
+     * shortest paths in addition to the paths.
+     *
+     * @param distanceFile the file where to store the distances
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     */
+    public void setDistanceFile(File distanceFile, boolean singlePrecision) {
 
-        if (!tempFolder.exists()) {
-            tempFolder.mkdirs();
+        this.distanceFile = distanceFile;
+        this.singlePrecisionDistances = singlePrecision;
+
+    }
+
+    /**
+     * Sets a file where to store the shortest path tree of every origin, see
+     * TreeFile. The trees take a fixed amount of space per pair of vertices
+     * whatever the length of the paths. If only trees are needed, the path
+     * file can be null.
+     *
+     * @param treeFile the file where to store the trees
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     */
+    public void setTreeFile(File treeFile, boolean singlePrecision) {
+
+        this.treeFile = treeFile;
+        this.singlePrecisionTrees = singlePrecision;
+
+    }
+
+    /**
+     * Restricts the computation to a shard, only the seeds whose index modulo
+     * the number of shards equals the index of the shard are computed. The
+     * distances are not stored in shard mode, they can be computed when
+     * merging the shards.
+     *
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     */
+    public void setShard(int shardIndex, int shardCount) {
+
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount + ".");
         }
 
-        finishedSeeds = new HashMap<>(nVertices);
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+
+    }
+
+    /**
+     * Sets the encoding of the path records. In compact encoding the weights
+     * of the paths are stored in single precision.
+     *
+     * @param recordEncoding the encoding of the path records
+     */
+    public void setRecordEncoding(RecordEncoding recordEncoding) {
+
+        this.recordEncoding = recordEncoding;
+
+    }
+
+    /**
+     * Sets the order in which the seeds are scheduled. The threads take the
+     * seeds in this order from a shared cursor, every thread starting the
+     * next seed when done with the previous one.
+     *
+     * @param seedOrder the order in which the seeds are scheduled
+     */
+    public void setSeedOrder(SeedOrder seedOrder) {
+
+        this.seedOrder = seedOrder;
+
+    }
+
+    /**
+     * Returns the time spent on every seed in the last run in nanoseconds,
+     * indexed by origin. Seeds not computed, for example of another shard or
+     * finished in a previous run, have a time of 0.
+     *
+     * @return the time spent on every seed in nanoseconds
+     */
+    public long[] getSeedRuntimes() {
+
+        return seedRuntimes;
+
+    }
+
+    /**
+     * Sets a file where to record the seeds finished. If the file contains
+     * the checkpoint of an interrupted run on the same graph with the same
+     * settings, the paths of the finished seeds are kept and only the other
+     * seeds are computed. The file is deleted when the computation completes.
+     *
+     * @param checkpointFile the file where to record the seeds finished
+     */
+    public void setCheckpointFile(File checkpointFile) {
+
+        this.checkpointFile = checkpointFile;
+
+    }
+
+    /**
+     * Sets the minimal time between two writes of the checkpoint. Finished
+     * seeds are recorded in batches, the result files being written to the
+     * storage device once per batch. A rerun after an interruption computes
+     * again the seeds finished since the last write.
+     *
+     * @param checkpointInterval the minimal time between two writes of the
+     * checkpoint in milliseconds
+     */
+    public void setCheckpointInterval(long checkpointInterval) {
+
+        this.checkpointInterval = checkpointInterval;
+
+    }
+
+    /**
+     * Cancels the running computation, seeds not started yet are skipped and
+     * the final file is left incomplete. The checkpoint is kept for a rerun.
+     */
+    public void cancel() {
+
+        cancelled = true;
 
     }
 
     /**
-     * Computes the path matrix.
+     * Indicates whether the computation was cancelled or crashed.
+     *
+     * @return a boolean indicating whether the computation was cancelled or
+     * crashed
+     */
+    public boolean isCancelled() {
+
+        return cancelled;
+
+    }
+
+    /**
+     * Computes the path matrix. If a seed crashes or if the computation is
+     * cancelled, the seeds not started are skipped and an exception is thrown
+     * once the running seeds are finished, the checkpoint is kept for a
+     * rerun.
      *
      * @param nThreads the number of threads to use
      */
     public void computeMatrix(int nThreads) {
 
-        ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+        long fingerprint = graph.getFingerprint();
+        PathFileHeader header = new PathFileHeader(fingerprint, layout, nVertices, shardIndex, shardCount, recordEncoding);
+
+        if (header.isPartial() && distanceFile != null) {
+            throw new IllegalArgumentException("Distances cannot be stored in shard mode, they can be computed when merging the shards.");
+        }
+
+        if (header.isPartial() && treeFile != null) {
+            throw new IllegalArgumentException("Trees cannot be stored in shard mode.");
+        }
+
+        cancelled = false;
+        crash = null;
+        nFinished.set(0);
+        progress.set(0);
+        nSeeds = 0;
 
         for (int origin = 0; origin < nVertices; origin++) {
 
-            Seed singlePath = new Seed(origin);
-            pool.submit(singlePath);
+            if (header.isInShard(origin)) {
+
+                nSeeds++;
+
+            }
+        }
+
+        boolean resume = false;
+
+        if (checkpointFile != null) {
+
+            int distanceWeightSize = distanceFile == null ? 0 : singlePrecisionDistances ? 4 : 8;
+            int treeWeightSize = treeFile == null ? 0 : singlePrecisionTrees ? 4 : 8;
+
+            checkpoint = new CheckpointFile(checkpointFile, fingerprint, layout, nVertices, distanceWeightSize, treeWeightSize);
+
+            resume = checkpoint.resumed
+                    && (resultFile == null || resultFile.exists())
+                    && (distanceFile == null || distanceFile.exists())
+                    && (treeFile == null || treeFile.exists());
+
+            if (checkpoint.resumed && !resume) {
+
+                checkpoint.close();
+                checkpointFile.delete();
+                checkpoint = new CheckpointFile(checkpointFile, fingerprint, layout, nVertices, distanceWeightSize, treeWeightSize);
+
+            }
+
+            if (resume) {
+
+                System.out.println("Resuming from " + checkpoint.getNFinished() + " seeds finished.");
+                nFinished.set(checkpoint.getNFinished());
+
+            }
+
+            pendingSeeds = new int[nVertices];
+            nPending = 0;
+            lastCheckpoint = System.currentTimeMillis();
+
+        }
+
+        if (resultFile != null) {
+
+            pathFile = new PathFile(resultFile, header, resume);
 
         }
 
-        pool.shutdown();
+        scratch = ThreadLocal.withInitial(Scratch::new);
+        distances = distanceFile == null ? null : new DistanceFile(distanceFile, nVertices, singlePrecisionDistances, layout, resume);
+        trees = treeFile == null ? null : new TreeFile(treeFile, nVertices, singlePrecisionTrees, layout, undirected, resume);
 
         try {
+
+            int[] seeds = new int[nVertices];
+            int nToCompute = 0;
+
+            for (int origin : seedOrder.getOrder(graph)) {
+
+                if (header.isInShard(origin) && (checkpoint == null || !checkpoint.isFinished(origin))) {
+
+                    seeds[nToCompute++] = origin;
+
+                }
+            }
+
+            seedRuntimes = new long[nVertices];
+            long start = System.nanoTime();
+
+            ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+            AtomicInteger cursor = new AtomicInteger();
+
+            for (int i = 0; i < nThreads; i++) {
+
+                pool.submit(new SeedWorker(seeds, nToCompute, cursor));
+
+            }
+
+            pool.shutdown();
+
             if (!pool.awaitTermination(nVertices, TimeUnit.DAYS)) {
 
-                throw new TimeoutException("Shortest path computation timed out.");
+                throw new IllegalStateException("Shortest path threads not terminated.");
+
+            }
+
+            if (checkpoint != null) {
+
+                saveCheckpoint();
 
             }
+
+            printSeedStatistics(seeds, nToCompute, System.nanoTime() - start, nThreads);
+
         } catch (Exception e) {
+
             throw new RuntimeException(e);
-        }
 
-        if (!crashed) {
-            wrap();
-        }
-    }
+        } finally {
 
-    /**
-     * Builds the final file from the temp file.
-     */
-    private void wrap() {
+            if (pathFile != null) {
 
-        PathFile pathFile = new PathFile(resultFile, nVertices);
+                pathFile.close();
+                pathFile = null;
 
-        for (int j = 1; j < nVertices; j++) {
+            }
 
-            for (int i = 0; i < j; i++) {
+            scratch = null;
 
-                SeedPathFile seedPathFile = finishedSeeds.get(i);
+            if (distances != null) {
 
-                Path path = seedPathFile.getPath(j);
+                distances.close();
+                distances = null;
 
-                if (path == null) {
+            }
 
-                    throw new IllegalArgumentException("Missing path between " + i + " and " + j + ".");
+            if (trees != null) {
 
-                }
+                trees.close();
+                trees = null;
 
-                if (path.length() >= maxDepth-2) {
+            }
 
-                    throw new IllegalArgumentException("Long path between " + i + " and " + j + ", consider extending the maximal length.");
+            if (checkpoint != null) {
 
-                }
+                checkpoint.close();
+                checkpoint = null;
+                pendingSeeds = null;
+
+                if (!cancelled) {
 
-                pathFile.setPath(path);
+                    checkpointFile.delete();
 
+                }
             }
         }
 
-        finishedSeeds.values().forEach(seedPathFile -> seedPathFile.close());
+        if (crash != null) {
 
-        pathFile.close();
+            throw new RuntimeException("Shortest path computation crashed, the matrix is incomplete.", crash);
 
-        System.gc();
+        }
 
-        try {
+        if (cancelled) {
 
-            wait(100);
+            throw new IllegalStateException("Shortest path computation cancelled, the matrix is incomplete.");
 
-        } catch (Exception e) {
-            // Ignore
         }
+    }
 
-        finishedSeeds.values().forEach(seedPathFile -> {
+    /**
+     * Prints statistics on the time spent on the seeds.
+     *
+     * @param seeds the seeds computed
+     * @param nComputed the number of seeds computed
+     * @param wallTime the time spent on the computation in nanoseconds
+     * @param nThreads the number of threads used
+     */
+    private void printSeedStatistics(int[] seeds, int nComputed, long wallTime, int nThreads) {
 
-            File tempFile = seedPathFile.file;
-            boolean success = tempFile.delete();
+        if (nComputed == 0 || wallTime == 0) {
+            return;
+        }
 
-            if (!success) {
+        long[] runtimes = new long[nComputed];
 
-                System.out.println("Failed to delete " + tempFile + ".");
-                tempFile.deleteOnExit();
+        for (int i = 0; i < nComputed; i++) {
 
-            }
-        });
+            runtimes[i] = seedRuntimes[seeds[i]];
+
+        }
+
+        Arrays.sort(runtimes);
 
-        boolean success = tempFolder.delete();
+        long total = 0;
 
-        if (!success) {
+        for (long runtime : runtimes) {
 
-            System.out.println("Failed to delete " + tempFolder + ".");
-            tempFolder.deleteOnExit();
+            total += runtime;
 
         }
+
+        double efficiency = 100.0 * total / wallTime / nThreads;
+
+        System.out.println(nComputed + " seeds in " + seedOrder + " order: mean " + (total / nComputed / 1000) + " µs, median " + (runtimes[nComputed / 2] / 1000) + " µs, max " + (runtimes[nComputed - 1] / 1000) + " µs, thread occupancy " + Math.round(efficiency) + "%.");
+
     }
 
     /**
-     * Convenience class finding the shortest paths to all vertices reachable
-     * from a given vertex
+     * Writes the paths of a finished seed to the final files. For directed
+     * graphs the seed writes the paths starting from its origin, for
+     * undirected graphs the paths between the vertices of lower index and
+     * its origin.
+     *
+     * @param seed the finished seed
+     * @param targets an array of size nVertices to use as buffer
      */
-    private class Seed implements Runnable {
+    private void writeSeed(SeedPathFile seed, int[] targets) {
 
-        /**
-         * The mapped file where to save the paths for this seed.
-         */
-        private final SeedPathFile seedPathFile;
+        int origin = seed.origin;
 
-        /**
-         * Constructor.
-         *
-         * @param origin The index of the origin vertex
-         */
-        public Seed(int origin) {
+        int start = undirected || directed ? 0 : origin + 1;
+        int end = undirected ? origin : nVertices;
 
-            File seedFilePath = new File(tempFolder, Integer.toString(origin));
+        int nTargets = 0;
 
-            seedPathFile = new SeedPathFile(seedFilePath, nVertices, maxDepth, origin);
+        for (int j = start; j < end; j++) {
 
-        }
+            if (j != origin) {
 
-        @Override
-        public void run() {
+                if (seed.hasPath(j)) {
 
-            if (crashed) {
-                return;
-            }
+                    if (seed.getLength(j) >= maxDepth - 2) {
 
-            try {
+                        throw new IllegalArgumentException("Long path between " + origin + " and " + j + ", consider extending the maximal length.");
 
-                System.out.print(seedPathFile.origin + " ");
+                    }
 
-                computeShortestPaths();
+                    targets[nTargets++] = j;
 
-                if (crashed) {
-                    return;
-                }
+                } else if (!directed) {
 
-                finishedSeeds.put(seedPathFile.origin, seedPathFile);
+                    throw new IllegalArgumentException("Missing path between " + origin + " and " + j + ".");
+
+                } else if (distances != null) {
+
+                    distances.setUnreachable(origin, j);
 
-                int tempProgress = (int) (1000.0 * ((double) seedPathFile.origin) / nVertices);
-                if (tempProgress > progress) {
-                    progress = tempProgress;
-                    double tempProgressDouble = (tempProgress) / 10.0;
-                    System.out.println(tempProgressDouble + "%");
                 }
+            }
+        }
 
-            } catch (Throwable e) {
+        if (pathFile != null) {
 
-                System.out.println(seedPathFile.origin + " Crashed.");
+            pathFile.setPaths(seed, targets, nTargets, undirected);
 
-                e.printStackTrace();
+        }
+
+        if (trees != null) {
 
-                crashed = true;
+            trees.setTree(seed);
+
+        }
+
+        if (distances != null) {
+
+            for (int i = 0; i < nTargets; i++) {
+
+                int target = targets[i];
+
+                distances.setDistance(origin, target, seed.getWeight(target), seed.getLength(target) - 1);
 
-                throw new RuntimeException(e);
             }
         }
+    }
 
-        /**
-         * Computes all shortest paths from the origin index.
-         */
-        public void computeShortestPaths() {
+    /**
+     * Adds a seed whose paths are written to the seeds pending, the
+     * checkpoint is saved if the last save is older than the checkpoint
+     * interval.
+     *
+     * @param origin the index of the origin of the seed
+     */
+    private synchronized void setFinished(int origin) {
 
-            Vertex originVertex = graph.vertices[seedPathFile.origin];
+        pendingSeeds[nPending++] = origin;
 
-            ArrayList<Path> pathsToExpand = new ArrayList<>();
+        if (System.currentTimeMillis() - lastCheckpoint >= checkpointInterval) {
 
-            for (int i = 0; i < originVertex.neighbors.length && !crashed; i++) {
+            saveCheckpoint();
 
-                int neighbor = originVertex.neighbors[i];
-                double weight = originVertex.weights[i];
+        }
+    }
 
-                boolean found = seedPathFile.hasPath(neighbor);
-                double currentWeight = seedPathFile.getWeight(neighbor);
-                int currentLength = seedPathFile.getLength(neighbor);
+    /**
+     * Writes the result files to the storage device and records the seeds
+     * pending in the checkpoint.
+     */
+    private synchronized void saveCheckpoint() {
 
-                if (!found
-                        || currentWeight > weight
-                        || currentWeight == weight && currentLength > 2) {
+        if (pathFile != null) {
 
-                    int[] pathIndexes = new int[2];
-                    pathIndexes[0] = seedPathFile.origin;
-                    pathIndexes[1] = neighbor;
-                    Path startPath = new Path(pathIndexes, weight);
+            pathFile.force();
 
-                    seedPathFile.setPath(startPath);
+        }
 
-                    pathsToExpand.add(startPath);
+        if (distances != null) {
 
-                }
-            }
+            distances.force();
 
-            while (!pathsToExpand.isEmpty()) {
+        }
 
-                pathsToExpand = pathsToExpand.stream()
-                        .flatMap(vertex -> expand(vertex).stream())
-                        .collect(Collectors.toCollection(ArrayList::new));
+        if (trees != null) {
 
-            }
+            trees.force();
 
         }
 
+        checkpoint.setFinished(pendingSeeds, nPending);
+
+        nPending = 0;
+        lastCheckpoint = System.currentTimeMillis();
+
+    }
+
+    /**
+     * Convenience class finding the shortest paths to all vertices reachable
+     * from a given vertex
+     */
+    private class Seed implements Runnable {
+
         /**
-         * Expands the given path to all next vertices.
-         *
-         * @param lastIndex the vertex from which to expand
-         *
-         * @return the paths left to expand
+         * The index of the origin vertex.
          */
-        private ArrayList<Path> expand(Path path) {
-
-            int lastIndex = path.getEnd();
+        private final int origin;
 
-            SeedPathFile otherSeedPathFile = finishedSeeds.get(lastIndex);
+        /**
+         * Constructor.
+         *
+         * @param origin The index of the origin vertex
+         */
+        public Seed(int origin) {
 
-            if (otherSeedPathFile != null) {
+            this.origin = origin;
 
-                for (int j = 0; j < nVertices; j++) {
+        }
 
-                    if (!path.contains(j)) {
+        @Override
+        public void run() {
 
-                        Path pathExtension = otherSeedPathFile.getPath(j);
+            if (cancelled) {
+                return;
+            }
 
-                        if (pathExtension != null) {
+            try {
 
-                            int totalLength = path.length() + pathExtension.length();
+                System.out.print(origin + " ");
 
-                            if (totalLength <= maxDepth) {
+                long start = System.nanoTime();
 
-                                double totalWeight = pathExtension.getWeight() + path.getWeight();
+                int nTargets = undirected ? origin : nVertices;
 
-                                boolean found = seedPathFile.hasPath(j);
-                                double currentWeight = seedPathFile.getWeight(j);
-                                int currentLength = seedPathFile.getLength(j);
+                SeedPathFile seedPathFile = scratch.get().dijkstra.computeShortestPaths(origin, nTargets);
 
-                                if (!found
-                                        || currentWeight > totalWeight
-                                        || currentWeight == totalWeight && currentLength > totalLength) {
+                if (cancelled) {
+                    return;
+                }
 
-                                    int[] newIndexes = Arrays.copyOf(path.getPath(), totalLength);
-                                    System.arraycopy(pathExtension.getPath(), 0, newIndexes, path.length(), pathExtension.length());
+                writeSeed(seedPathFile, scratch.get().targets);
 
-                                    Path newPath = new Path(newIndexes, totalWeight);
+                if (checkpoint != null) {
 
-                                    seedPathFile.setPath(newPath);
+                    setFinished(origin);
 
-                                }
-                            }
-                        }
-                    }
                 }
 
-                return new ArrayList<>(0);
+                seedRuntimes[origin] = System.nanoTime() - start;
 
-            } else {
+                int tempProgress = (int) (1000.0 * nFinished.incrementAndGet() / nSeeds);
+                int previousProgress = progress.get();
+                if (tempProgress > previousProgress && progress.compareAndSet(previousProgress, tempProgress)) {
+                    double tempProgressDouble = (tempProgress) / 10.0;
+                    System.out.println(tempProgressDouble + "%");
+                }
 
-                Vertex lastVertex = graph.vertices[lastIndex];
-                int nVertices = lastVertex.neighbors.length;
+            } catch (Throwable e) {
 
-                ArrayList<Path> pathsToExpand = new ArrayList<>(nVertices);
+                System.out.println(origin + " Crashed.");
 
-                for (int i = 0; i < nVertices && !crashed; i++) {
+                e.printStackTrace();
 
-                    int neighbor = lastVertex.neighbors[i];
+                synchronized (ShortestPath.this) {
 
-                    if (!path.contains(neighbor)) {
+                    if (crash == null) {
 
-                        int totalLength = path.length() + 1;
+                        crash = e;
 
-                        if (totalLength <= maxDepth) {
+                    }
+                }
 
-                            double weight = lastVertex.weights[i];
-                            double totalWeight = weight + path.getWeight();
+                cancelled = true;
 
-                            boolean found = seedPathFile.hasPath(neighbor);
-                            double currentWeight = seedPathFile.getWeight(neighbor);
-                            int currentLength = seedPathFile.getLength(neighbor);
+            }
+        }
+    }
 
-                            if (!found
-                                    || currentWeight > totalWeight
-                                    || currentWeight == totalWeight && currentLength > totalLength) {
+    /**
+     * A worker thread computing seeds until all are started. The seeds are
+     * taken in the order of computation from a cursor shared by all workers.
+     */
+    private class SeedWorker implements Runnable {
 
-                                int[] newIndexes = Arrays.copyOf(path.getPath(), totalLength);
-                                newIndexes[path.length()] = neighbor;
+        /**
+         * The origins of the seeds in the order of computation.
+         */
+        private final int[] seeds;
+        /**
+         * The number of seeds to compute from the start of the array.
+         */
+        private final int nSeeds;
+        /**
+         * The index of the next seed to start, shared by all workers.
+         */
+        private final AtomicInteger cursor;
 
-                                Path newPath = new Path(newIndexes, totalWeight);
+        /**
+         * Constructor.
+         *
+         * @param seeds the origins of the seeds in the order of computation
+         * @param nSeeds the number of seeds to compute from the start of the
+         * array
+         * @param cursor the index of the next seed to start, shared by all
+         * workers
+         */
+        public SeedWorker(int[] seeds, int nSeeds, AtomicInteger cursor) {
 
-                                seedPathFile.setPath(newPath);
+            this.seeds = seeds;
+            this.nSeeds = nSeeds;
+            this.cursor = cursor;
 
-                                if (totalLength < maxDepth) {
+        }
 
-                                    pathsToExpand.add(newPath);
+        @Override
+        public void run() {
 
-                                }
-                            }
-                        }
-                    }
-                }
+            int i;
+            while (!cancelled && (i = cursor.getAndIncrement()) < nSeeds) {
 
-                return pathsToExpand;
+                new Seed(seeds[i]).run();
 
             }
         }
     }
+
+    /**
+     * The memory used by a worker thread to process seeds, allocated once per
+     * thread and reused for all the seeds processed by the thread.
+     */
+    private class Scratch {
+
+        /**
+         * The search engine and its working arrays.
+         */
+        private final Dijkstra dijkstra = new Dijkstra(graph);
+        /**
+         * Buffer for the targets of a seed.
+         */
+        private final int[] targets = new int[nVertices];
+
+    }
 }
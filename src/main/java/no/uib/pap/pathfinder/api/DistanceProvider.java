@@ -0,0 +1,165 @@
+package no.uib.pap.pathfinder.api;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.path.DistanceFile;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+
+/**
+ * This class provides the weight and number of hops of the shortest paths
+ * based on a file created by DistanceFile. The layout of the matrix is read
+ * from the header of the file.
+ *
+ * Note 1: It is safe to use the distance provider with multiple threads.
+ *
+ * Note 2: The provider must not be used after calling close.
+ *
+ * @author Marc Vaudel
+ */
+public class DistanceProvider implements Closeable {
+
+    /**
+     * The random access file.
+     */
+    private final RandomAccessFile raf;
+    /**
+     * The channel to the file.
+     */
+    private final FileChannel fc;
+    /**
+     * The file mapped in memory.
+     */
+    private final SegmentedMappedFile mappedFile;
+    /**
+     * The number of vertices.
+     */
+    public final int nVertices;
+    /**
+     * Boolean indicating whether weights are stored in single precision.
+     */
+    private final boolean singlePrecision;
+    /**
+     * The number of bytes used by a record.
+     */
+    private final int stride;
+    /**
+     * The offset of the hop count in a record.
+     */
+    private final int hopsOffset;
+    /**
+     * The layout of the matrix.
+     */
+    public final MatrixLayout layout;
+
+    /**
+     * Constructor.
+     *
+     * @param distanceFile the distance file
+     *
+     * @throws java.io.IOException exception thrown if an error occurred while
+     * reading the file.
+     */
+    public DistanceProvider(File distanceFile) throws IOException {
+
+        raf = new RandomAccessFile(distanceFile, "r");
+        fc = raf.getChannel();
+        mappedFile = new SegmentedMappedFile(fc);
+
+        if (mappedFile.getInt(0) != DistanceFile.MAGIC) {
+
+            close();
+            throw new IllegalArgumentException("Not a distance file.");
+
+        }
+
+        int version = mappedFile.getInt(4);
+
+        if (version != DistanceFile.VERSION) {
+
+            close();
+            throw new IllegalArgumentException("Unsupported distance file version: " + version + ".");
+
+        }
+
+        nVertices = mappedFile.getInt(8);
+        int weightSize = mappedFile.getInt(12);
+
+        singlePrecision = weightSize == 4;
+        stride = DistanceFile.getStride(weightSize);
+        hopsOffset = weightSize;
+        layout = MatrixLayout.getLayout(mappedFile.getInt(16));
+
+    }
+
+    /**
+     * Returns the weight of the shortest path between two vertices, zero if
+     * the vertices are the same, positive infinity if there is no path.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the weight of the shortest path
+     */
+    public double getWeight(int from, int to) {
+
+        if (from == to) {
+            return 0.0;
+        }
+
+        long position = getPosition(from, to);
+
+        return singlePrecision ? mappedFile.getFloat(position) : mappedFile.getDouble(position);
+
+    }
+
+    /**
+     * Returns the number of edges in the shortest path between two vertices,
+     * zero if the vertices are the same, -1 if there is no path.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the number of edges in the shortest path
+     */
+    public int getHopCount(int from, int to) {
+
+        if (from == to) {
+            return 0;
+        }
+
+        long position = getPosition(from, to);
+
+        int nHops = mappedFile.get(position + hopsOffset) & 0xFF;
+
+        return nHops == DistanceFile.UNREACHABLE ? -1 : nHops;
+
+    }
+
+    /**
+     * Returns the position of the record of two different vertices in the
+     * file.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the position of the record in the file
+     */
+    private long getPosition(int from, int to) {
+
+        return DistanceFile.getPosition(layout.getIndex(from, to, nVertices), stride);
+
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        // Close connections to the file
+        mappedFile.close();
+        fc.close();
+        raf.close();
+    }
+}
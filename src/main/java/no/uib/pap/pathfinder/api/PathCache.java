@@ -0,0 +1,533 @@
+package no.uib.pap.pathfinder.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * A size-bounded cache of paths keyed by the index of the pair of vertices in
+ * the matrix.
+ *
+ * The cache is split in segments locked independently, the segment of a pair
+ * is given by the hash of its index. Every segment uses a segmented LRU
+ * policy: new paths enter a probation list, paths queried again are promoted
+ * to a protected list, and paths are evicted from the end of the probation
+ * list. Paths queried once, e.g. when scanning the matrix, therefore do not
+ * evict the paths queried often. Pairs are stored as primitive keys in open
+ * addressing hash tables.
+ *
+ * Note: cached paths are shared between callers and must not be modified.
+ *
+ * @author Marc Vaudel
+ */
+public class PathCache {
+
+    /**
+     * The number of segments, must be a power of two.
+     */
+    public static final int N_SEGMENTS = 16;
+    /**
+     * The share of a segment reserved to the protected list.
+     */
+    public static final double PROTECTED_SHARE = 0.8;
+    /**
+     * The segments.
+     */
+    private final Segment[] segments;
+    /**
+     * The maximal number of paths in the cache.
+     */
+    public final int capacity;
+    /**
+     * The number of queries served from the cache.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * The number of queries not found in the cache.
+     */
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * The number of paths evicted from the cache.
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximal number of paths in the cache
+     */
+    public PathCache(int capacity) {
+
+        if (capacity < N_SEGMENTS) {
+            throw new IllegalArgumentException("Cache capacity " + capacity + " lower than the number of segments (" + N_SEGMENTS + ").");
+        }
+
+        this.capacity = capacity;
+
+        int segmentCapacity = capacity / N_SEGMENTS;
+
+        segments = new Segment[N_SEGMENTS];
+
+        for (int i = 0; i < N_SEGMENTS; i++) {
+
+            segments[i] = new Segment(segmentCapacity);
+
+        }
+    }
+
+    /**
+     * Mixes the bits of a key.
+     *
+     * @param key the key
+     *
+     * @return the hash of the key
+     */
+    private static long hash(long key) {
+
+        long hash = key * 0x9E3779B97F4A7C15l;
+
+        return hash ^ (hash >>> 29);
+
+    }
+
+    /**
+     * Returns the segment of a key.
+     *
+     * @param key the key
+     *
+     * @return the segment of the key
+     */
+    private Segment getSegment(long key) {
+
+        return segments[(int) (hash(key) >>> 60) & (N_SEGMENTS - 1)];
+
+    }
+
+    /**
+     * Returns the path cached for the given pair.
+     *
+     * @param key the index of the pair of vertices
+     *
+     * @return the path cached, null if not cached
+     */
+    public Path get(long key) {
+
+        Path path = getSegment(key).get(key);
+
+        if (path == null) {
+
+            misses.incrementAndGet();
+
+        } else {
+
+            hits.incrementAndGet();
+
+        }
+
+        return path;
+
+    }
+
+    /**
+     * Caches the path of the given pair.
+     *
+     * @param key the index of the pair of vertices
+     * @param path the path
+     */
+    public void put(long key, Path path) {
+
+        if (getSegment(key).put(key, path)) {
+
+            evictions.incrementAndGet();
+
+        }
+    }
+
+    /**
+     * Returns the number of queries served from the cache.
+     *
+     * @return the number of queries served from the cache
+     */
+    public long getHits() {
+
+        return hits.get();
+
+    }
+
+    /**
+     * Returns the number of queries not found in the cache.
+     *
+     * @return the number of queries not found in the cache
+     */
+    public long getMisses() {
+
+        return misses.get();
+
+    }
+
+    /**
+     * Returns the number of paths evicted from the cache.
+     *
+     * @return the number of paths evicted from the cache
+     */
+    public long getEvictions() {
+
+        return evictions.get();
+
+    }
+
+    /**
+     * Returns the number of paths in the cache.
+     *
+     * @return the number of paths in the cache
+     */
+    public int size() {
+
+        int size = 0;
+
+        for (Segment segment : segments) {
+
+            size += segment.size();
+
+        }
+
+        return size;
+
+    }
+
+    /**
+     * A segment of the cache. Entries are stored in slots, the slots of each
+     * list are linked from the most recently used to the least recently
+     * used.
+     */
+    private static class Segment {
+
+        /**
+         * The index of the probation list.
+         */
+        private static final int PROBATION = 0;
+        /**
+         * The index of the protected list.
+         */
+        private static final int PROTECTED = 1;
+        /**
+         * The maximal number of entries.
+         */
+        private final int capacity;
+        /**
+         * The maximal number of entries in the protected list.
+         */
+        private final int protectedCapacity;
+        /**
+         * The key of every slot.
+         */
+        private final long[] keys;
+        /**
+         * The path of every slot.
+         */
+        private final Path[] paths;
+        /**
+         * The list of every slot.
+         */
+        private final int[] lists;
+        /**
+         * The previous slot in the list, i.e. more recently used, -1 if none.
+         */
+        private final int[] previous;
+        /**
+         * The next slot in the list, i.e. less recently used, -1 if none.
+         */
+        private final int[] next;
+        /**
+         * The first slot of every list, -1 if empty.
+         */
+        private final int[] heads = {-1, -1};
+        /**
+         * The last slot of every list, -1 if empty.
+         */
+        private final int[] tails = {-1, -1};
+        /**
+         * The number of slots in every list.
+         */
+        private final int[] sizes = new int[2];
+        /**
+         * The hash table, slot + 1 for every key, 0 for empty buckets.
+         */
+        private final int[] table;
+        /**
+         * The mask of the hash table.
+         */
+        private final int tableMask;
+        /**
+         * The number of slots used.
+         */
+        private int nSlots = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity the maximal number of entries
+         */
+        public Segment(int capacity) {
+
+            this.capacity = capacity;
+            protectedCapacity = (int) (capacity * PROTECTED_SHARE);
+
+            keys = new long[capacity];
+            paths = new Path[capacity];
+            lists = new int[capacity];
+            previous = new int[capacity];
+            next = new int[capacity];
+
+            int tableSize = Integer.highestOneBit(2 * capacity - 1) << 1;
+            table = new int[tableSize];
+            tableMask = tableSize - 1;
+
+        }
+
+        /**
+         * Returns the number of entries.
+         *
+         * @return the number of entries
+         */
+        public synchronized int size() {
+
+            return sizes[PROBATION] + sizes[PROTECTED];
+
+        }
+
+        /**
+         * Returns the path of the given key and marks it as used.
+         *
+         * @param key the key
+         *
+         * @return the path, null if not cached
+         */
+        public synchronized Path get(long key) {
+
+            int slot = find(key);
+
+            if (slot == -1) {
+                return null;
+            }
+
+            unlink(slot);
+
+            if (lists[slot] == PROBATION && protectedCapacity > 0) {
+
+                // Promote, the least recently used protected entry goes back to probation
+                if (sizes[PROTECTED] == protectedCapacity) {
+
+                    int demoted = tails[PROTECTED];
+                    unlink(demoted);
+                    link(demoted, PROBATION);
+
+                }
+
+                link(slot, PROTECTED);
+
+            } else {
+
+                link(slot, lists[slot]);
+
+            }
+
+            return paths[slot];
+
+        }
+
+        /**
+         * Adds the path of the given key to the probation list.
+         *
+         * @param key the key
+         * @param path the path
+         *
+         * @return a boolean indicating whether another entry was evicted
+         */
+        public synchronized boolean put(long key, Path path) {
+
+            int slot = find(key);
+
+            if (slot != -1) {
+
+                paths[slot] = path;
+                return false;
+
+            }
+
+            boolean evicted = false;
+
+            if (nSlots < capacity) {
+
+                slot = nSlots++;
+
+            } else {
+
+                slot = tails[sizes[PROBATION] > 0 ? PROBATION : PROTECTED];
+                unlink(slot);
+                remove(keys[slot]);
+                evicted = true;
+
+            }
+
+            keys[slot] = key;
+            paths[slot] = path;
+            insert(key, slot);
+            link(slot, PROBATION);
+
+            return evicted;
+
+        }
+
+        /**
+         * Returns the bucket of the given key in the hash table.
+         *
+         * @param key the key
+         *
+         * @return the bucket of the given key
+         */
+        private int getBucket(long key) {
+
+            return (int) hash(key) & tableMask;
+
+        }
+
+        /**
+         * Returns the slot of the given key.
+         *
+         * @param key the key
+         *
+         * @return the slot of the given key, -1 if not found
+         */
+        private int find(long key) {
+
+            for (int bucket = getBucket(key); table[bucket] != 0; bucket = (bucket + 1) & tableMask) {
+
+                int slot = table[bucket] - 1;
+
+                if (keys[slot] == key) {
+                    return slot;
+                }
+            }
+
+            return -1;
+
+        }
+
+        /**
+         * Adds a key to the hash table.
+         *
+         * @param key the key
+         * @param slot the slot of the key
+         */
+        private void insert(long key, int slot) {
+
+            int bucket = getBucket(key);
+
+            while (table[bucket] != 0) {
+
+                bucket = (bucket + 1) & tableMask;
+
+            }
+
+            table[bucket] = slot + 1;
+
+        }
+
+        /**
+         * Removes a key from the hash table, the following entries of the
+         * probe sequence are shifted back so that lookups do not stop early.
+         *
+         * @param key the key
+         */
+        private void remove(long key) {
+
+            int bucket = getBucket(key);
+
+            while (keys[table[bucket] - 1] != key) {
+
+                bucket = (bucket + 1) & tableMask;
+
+            }
+
+            table[bucket] = 0;
+
+            for (int current = (bucket + 1) & tableMask; table[current] != 0; current = (current + 1) & tableMask) {
+
+                int home = getBucket(keys[table[current] - 1]);
+
+                // Move the entry if its home bucket is not between the hole and its position
+                boolean move = bucket <= current
+                        ? home <= bucket || home > current
+                        : home <= bucket && home > current;
+
+                if (move) {
+
+                    table[bucket] = table[current];
+                    table[current] = 0;
+                    bucket = current;
+
+                }
+            }
+        }
+
+        /**
+         * Adds a slot at the head of a list.
+         *
+         * @param slot the slot
+         * @param list the list
+         */
+        private void link(int slot, int list) {
+
+            lists[slot] = list;
+            previous[slot] = -1;
+            next[slot] = heads[list];
+
+            if (heads[list] != -1) {
+
+                previous[heads[list]] = slot;
+
+            } else {
+
+                tails[list] = slot;
+
+            }
+
+            heads[list] = slot;
+            sizes[list]++;
+
+        }
+
+        /**
+         * Removes a slot from its list.
+         *
+         * @param slot the slot
+         */
+        private void unlink(int slot) {
+
+            int list = lists[slot];
+
+            if (previous[slot] != -1) {
+
+                next[previous[slot]] = next[slot];
+
+            } else {
+
+                heads[list] = next[slot];
+
+            }
+
+            if (next[slot] != -1) {
+
+                previous[next[slot]] = previous[slot];
+
+            } else {
+
+                tails[list] = previous[slot];
+
+            }
+
+            sizes[list]--;
+
+        }
+    }
+}
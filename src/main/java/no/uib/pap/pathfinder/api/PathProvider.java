@@ -4,20 +4,25 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.io.path.PathFileHeader;
 import no.uib.pap.pathfinder.io.path.PathFileUtils;
-import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
 import no.uib.pap.pathfinder.model.graph.Path;
+import no.uib.pap.pathfinder.util.SortUtils;
 
 /**
  * This class provides the shortest path based on a file created by PathFile.
+ * The file is mapped once when creating the provider, the indexes and the
+ * paths are then read directly from the mapping, so that opening a file does
+ * not depend on its size and the indexes do not use heap memory. The layout
+ * of the matrix, triangular for undirected graphs or square for directed
+ * graphs, is read from the header of the file.
  *
  * Note 1: It is safe to use the path provider with multiple threads.
  *
- * Note 2: The connection to the file seems to remain open for a bit of time
- * after calling close. This might result eg in files not being deleted. gc and
- * waiting seem to help.
+ * Note 2: The provider must not be used after calling close.
  *
  * @author Marc Vaudel
  */
@@ -32,9 +37,17 @@ public class PathProvider implements Closeable {
      */
     private final FileChannel fc;
     /**
-     * The path indexes.
+     * The file mapped in memory.
      */
-    private final long[] indexes;
+    private final SegmentedMappedFile mappedFile;
+    /**
+     * The header of the file.
+     */
+    public final PathFileHeader header;
+    /**
+     * The cache of paths, null if not used.
+     */
+    private volatile PathCache cache = null;
 
     /**
      * Constructor.
@@ -49,49 +62,282 @@ public class PathProvider implements Closeable {
         // Map file
         raf = new RandomAccessFile(pathFile, "r");
         fc = raf.getChannel();
+        mappedFile = new SegmentedMappedFile(fc);
+
+        // Get the layout and number of paths in the file
+        header = PathFileHeader.read(mappedFile);
+
+    }
+
+    /**
+     * Reads the path from the file.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the path ending on the desired vertex, null if the vertices are
+     * the same or if there is no path between them
+     *
+     * @throws java.io.IOException exception thrown if an error occurred while
+     * reading the file.
+     */
+    public Path getPath(int from, int to) throws IOException {
+
+        PathCache currentCache = cache;
 
-        // Get the number of paths in the file
-        MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, 4);
+        if (currentCache == null || from == to) {
+
+            long position = getPosition(from, to);
+
+            return position == -1 ? null : PathFileUtils.getPath(position, mappedFile, header.encoding);
+
+        }
 
-        int nPath = buffer.getInt();
+        long pathIndex = header.getIndex(from, to);
 
-        closeBuffer(buffer);
+        Path path = currentCache.get(pathIndex);
 
-        // Get the paths indexes
-        indexes = new long[nPath + 1];
+        if (path == null) {
 
-        buffer = fc.map(FileChannel.MapMode.READ_ONLY, 4, (nPath + 1) * 8);
+            long position = mappedFile.getLong(header.getIndexPosition(pathIndex));
 
-        for (int i = 0; i < nPath + 1; i++) {
+            if (position != -1) {
 
-            indexes[i] = buffer.getLong();
+                path = PathFileUtils.getPath(position, mappedFile, header.encoding);
+                currentCache.put(pathIndex, path);
 
+            }
         }
 
-        closeBuffer(buffer);
+        return path;
 
     }
 
     /**
-     * Reads the path from the file.
+     * Sets a cache in front of getPath, the paths queried are then kept in
+     * memory and shared between callers, they must not be modified. Caching
+     * pays off when a small set of pairs is queried repeatedly. The other
+     * queries are not cached.
+     *
+     * @param capacity the maximal number of paths in the cache, 0 to disable
+     * the cache
+     */
+    public void setCache(int capacity) {
+
+        cache = capacity == 0 ? null : new PathCache(capacity);
+
+    }
+
+    /**
+     * Returns the cache of paths, giving access to the number of hits, misses
+     * and evictions.
+     *
+     * @return the cache of paths, null if not used
+     */
+    public PathCache getCache() {
+
+        return cache;
+
+    }
+
+    /**
+     * Returns the position of the path between two vertices in the file.
      *
      * @param from the index of the first vertex in the path
      * @param to the index of the last vertex in the path
      *
-     * @return the path ending on the desired vertex
+     * @return the position of the path in the file, -1 if the vertices are
+     * the same or if there is no path between them
+     */
+    private long getPosition(int from, int to) {
+
+        return from == to ? -1 : mappedFile.getLong(header.getIndexPosition(header.getIndex(from, to)));
+
+    }
+
+    /**
+     * Returns the weights of the paths between the given pairs of vertices.
+     * The weight between a vertex and itself is zero, the weight between
+     * vertices without path is positive infinity.
+     *
+     * @param from the indexes of the first vertices of the paths
+     * @param to the indexes of the last vertices of the paths
      *
-     * @throws java.io.IOException exception thrown if an error occurred while
-     * reading the file.
+     * @return the weights of the paths in the order of the queries
      */
-    public Path getPath(int from, int to) throws IOException {
+    public double[] getWeights(int[] from, int[] to) {
+
+        double[] weights = new double[from.length];
+
+        int[] order = getFileOrder(from, to);
+
+        for (int query : order) {
+
+            if (from[query] != to[query]) {
+
+                long position = getPosition(from[query], to[query]);
+                weights[query] = position == -1 ? Double.POSITIVE_INFINITY : PathFileUtils.getWeight(position, mappedFile, header.encoding);
+
+            }
+        }
+
+        return weights;
+
+    }
+
+    /**
+     * Returns the weights of the paths between all pairs of the given
+     * vertices as a matrix stored by row, i.e. the weight between vertices[i]
+     * and vertices[j] is at index i * vertices.length + j. The weight between
+     * vertices without path is positive infinity. The matrix is limited to
+     * 46340 vertices, the size of an array.
+     *
+     * @param vertices the indexes of the vertices
+     *
+     * @return the weights of the paths between all pairs of vertices
+     */
+    public double[] getWeightMatrix(int[] vertices) {
+
+        int nVertices = vertices.length;
+
+        if (((long) nVertices) * nVertices > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for a weight matrix (" + nVertices + "), query the weights by blocks of vertices.");
+        }
+
+        double[] matrix = new double[nVertices * nVertices];
+
+        boolean symmetric = header.layout == MatrixLayout.TRIANGULAR;
+
+        int nPairs = symmetric ? nVertices * (nVertices - 1) / 2 : nVertices * (nVertices - 1);
+        long[] positions = new long[nPairs];
+        int[] pairs = new int[nPairs];
+
+        int pair = 0;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            for (int j = symmetric ? i + 1 : 0; j < nVertices; j++) {
+
+                if (i != j) {
+
+                    positions[pair] = getPosition(vertices[i], vertices[j]);
+                    pairs[pair] = i * nVertices + j;
+                    pair++;
+
+                }
+            }
+        }
+
+        SortUtils.sort(positions, pairs);
+
+        for (pair = 0; pair < nPairs; pair++) {
+
+            long position = positions[pair];
+
+            int i = pairs[pair] / nVertices;
+            int j = pairs[pair] % nVertices;
+
+            double weight;
+
+            if (position != -1) {
+
+                weight = PathFileUtils.getWeight(position, mappedFile, header.encoding);
+
+            } else {
+
+                weight = vertices[i] == vertices[j] ? 0.0 : Double.POSITIVE_INFINITY;
+
+            }
+
+            matrix[i * nVertices + j] = weight;
+
+            if (symmetric) {
+
+                matrix[j * nVertices + i] = weight;
+
+            }
+        }
+
+        return matrix;
+
+    }
+
+    /**
+     * Reads the paths between the given pairs of vertices and passes them to
+     * the visitor. Paths are visited in the order of the file, the index of
+     * the query is passed to the visitor. Pairs made of twice the same vertex
+     * and pairs without path are not visited. Note that with a triangular
+     * layout paths are stored from the vertex of lower index to the vertex of
+     * higher index.
+     *
+     * @param from the indexes of the first vertices of the paths
+     * @param to the indexes of the last vertices of the paths
+     * @param visitor the visitor
+     */
+    public void visitPaths(int[] from, int[] to, PathVisitor visitor) {
+
+        int[] vertices = new int[16];
+
+        int[] order = getFileOrder(from, to);
+
+        for (int query : order) {
+
+            long position = getPosition(from[query], to[query]);
+
+            if (position != -1) {
+
+                int nVertices = PathFileUtils.getNVertices(position, mappedFile, header.encoding);
+
+                if (nVertices > vertices.length) {
+
+                    vertices = new int[2 * nVertices];
+
+                }
+
+                PathFileUtils.getVertices(position, mappedFile, vertices, header.encoding);
+
+                visitor.visit(query, PathFileUtils.getWeight(position, mappedFile, header.encoding), vertices, nVertices);
+
+            }
+        }
+    }
+
+    /**
+     * Returns the indexes of the queries sorted by position of the paths in
+     * the file.
+     *
+     * @param from the indexes of the first vertices of the paths
+     * @param to the indexes of the last vertices of the paths
+     *
+     * @return the indexes of the queries sorted by position in the file
+     */
+    private int[] getFileOrder(int[] from, int[] to) {
+
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Different number of start (" + from.length + ") and end (" + to.length + ") vertices.");
+        }
+
+        long[] positions = new long[from.length];
+        int[] order = new int[from.length];
+
+        for (int query = 0; query < from.length; query++) {
+
+            positions[query] = getPosition(from[query], to[query]);
+            order[query] = query;
+
+        }
+
+        SortUtils.sort(positions, order);
+
+        return order;
 
-        return PathFileUtils.getPath(from, to, indexes, fc);
     }
 
     @Override
     public void close() throws IOException {
 
         // Close connections to the file
+        mappedFile.close();
         fc.close();
         raf.close();
     }
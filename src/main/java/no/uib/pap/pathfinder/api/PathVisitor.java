@@ -0,0 +1,23 @@
+package no.uib.pap.pathfinder.api;
+
+/**
+ * Callback receiving the paths read by the path provider without creating
+ * path objects.
+ *
+ * @author Marc Vaudel
+ */
+public interface PathVisitor {
+
+    /**
+     * Visits a path. The array of vertices is reused between calls and must
+     * not be kept by the visitor.
+     *
+     * @param query the index of the query in the arrays given to the provider
+     * @param weight the weight of the path
+     * @param vertices the vertices of the path, only the first nVertices are
+     * valid
+     * @param nVertices the number of vertices in the path
+     */
+    public void visit(int query, double weight, int[] vertices, int nVertices);
+
+}
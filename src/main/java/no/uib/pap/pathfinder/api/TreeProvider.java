@@ -0,0 +1,207 @@
+package no.uib.pap.pathfinder.api;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.io.path.TreeFile;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class provides the shortest paths based on a file created by
+ * TreeFile. Paths are reconstructed by walking the predecessors in the
+ * shortest path tree of their origin. As for the PathProvider, in triangular
+ * layout paths are returned from the vertex of lower index to the vertex of
+ * higher index.
+ *
+ * Note 1: It is safe to use the tree provider with multiple threads.
+ *
+ * Note 2: The provider must not be used after calling close.
+ *
+ * @author Marc Vaudel
+ */
+public class TreeProvider implements Closeable {
+
+    /**
+     * The random access file.
+     */
+    private final RandomAccessFile raf;
+    /**
+     * The channel to the file.
+     */
+    private final FileChannel fc;
+    /**
+     * The file mapped in memory.
+     */
+    private final SegmentedMappedFile mappedFile;
+    /**
+     * The layout of the matrix.
+     */
+    public final MatrixLayout layout;
+    /**
+     * The number of vertices.
+     */
+    public final int nVertices;
+    /**
+     * The number of bytes used by a weight.
+     */
+    private final int weightSize;
+    /**
+     * Boolean indicating whether the graph is undirected, in which case the
+     * path between two vertices is stored in the tree of the vertex of higher
+     * index.
+     */
+    public final boolean undirected;
+
+    /**
+     * Constructor.
+     *
+     * @param treeFile the tree file
+     *
+     * @throws java.io.IOException exception thrown if an error occurred while
+     * reading the file.
+     */
+    public TreeProvider(File treeFile) throws IOException {
+
+        raf = new RandomAccessFile(treeFile, "r");
+        fc = raf.getChannel();
+        mappedFile = new SegmentedMappedFile(fc);
+
+        if (mappedFile.getInt(0) != TreeFile.MAGIC) {
+            throw new IllegalArgumentException(treeFile + " is not a tree file.");
+        }
+
+        int version = mappedFile.getInt(4);
+
+        if (version != TreeFile.VERSION) {
+            throw new IllegalArgumentException("Unsupported tree file version: " + version + ".");
+        }
+
+        layout = MatrixLayout.getLayout(mappedFile.getInt(8));
+        nVertices = mappedFile.getInt(12);
+        weightSize = mappedFile.getInt(16);
+        undirected = mappedFile.getInt(20) == 1;
+
+    }
+
+    /**
+     * Returns the origin of the tree where the path between two vertices is
+     * stored.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the origin of the tree
+     */
+    private int getOrigin(int from, int to) {
+
+        if (layout == MatrixLayout.SQUARE) {
+            return from;
+        }
+
+        return undirected ? Math.max(from, to) : Math.min(from, to);
+
+    }
+
+    /**
+     * Returns the predecessor of a vertex in the shortest path tree of an
+     * origin.
+     *
+     * @param origin the index of the origin
+     * @param vertex the index of the vertex
+     *
+     * @return the predecessor of the vertex, -1 for the origin and vertices
+     * not reached
+     */
+    public int getPredecessor(int origin, int vertex) {
+
+        long position = TreeFile.getPosition(origin, nVertices, weightSize) + ((long) weightSize) * nVertices + 4l * vertex;
+
+        return mappedFile.getInt(position);
+
+    }
+
+    /**
+     * Returns the weight of the shortest path between two vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the weight of the path, zero if the vertices are the same,
+     * positive infinity if there is no path
+     */
+    public double getWeight(int from, int to) {
+
+        if (from == to) {
+            return 0.0;
+        }
+
+        int origin = getOrigin(from, to);
+        int target = origin == from ? to : from;
+
+        long position = TreeFile.getPosition(origin, nVertices, weightSize) + ((long) weightSize) * target;
+
+        return weightSize == 4 ? mappedFile.getFloat(position) : mappedFile.getDouble(position);
+
+    }
+
+    /**
+     * Reconstructs the shortest path between two vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the path, null if the vertices are the same or if there is no
+     * path between them
+     */
+    public Path getPath(int from, int to) {
+
+        if (from == to) {
+            return null;
+        }
+
+        int origin = getOrigin(from, to);
+        int target = origin == from ? to : from;
+
+        int length = 1;
+
+        for (int vertex = target; vertex != origin; vertex = getPredecessor(origin, vertex)) {
+
+            if (vertex == -1) {
+                return null;
+            }
+
+            if (++length > nVertices) {
+                throw new IllegalArgumentException("Cycle in the tree of " + origin + ".");
+            }
+        }
+
+        // The walk goes from the target to the origin, in undirected graphs the target has the lower index
+        boolean forward = layout == MatrixLayout.TRIANGULAR && undirected;
+
+        int[] vertices = new int[length];
+        int vertex = target;
+
+        for (int i = 0; i < length; i++) {
+
+            vertices[forward ? i : length - 1 - i] = vertex;
+            vertex = getPredecessor(origin, vertex);
+
+        }
+
+        return new Path(vertices, getWeight(from, to));
+
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        mappedFile.close();
+        fc.close();
+        raf.close();
+
+    }
+}
@@ -3,11 +3,13 @@ package no.uib.pap.pathfinder.cmd;
 import java.io.File;
 import no.uib.pap.pathfinder.ShortestPath;
 import no.uib.pap.pathfinder.io.network.NetworkPool;
-import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
 import no.uib.pap.pathfinder.util.ProgressHandler;
 
 /**
- * Exports the shortest path matrix.
+ * Exports the shortest path matrix. The computation can be split in shards
+ * run as separate processes, possibly on different machines, the shards are
+ * then assembled using MergeShortestPathMatrix.
  *
  * @author Marc Vaudel
  */
@@ -21,7 +23,8 @@ public class ExportShortestPathMatrix {
     /**
      * Exports the shortest path matrix for the graphs available in the pool.
      *
-     * @param args the command line arguments
+     * @param args the command line arguments: the number of threads,
+     * optionally followed by the index of the shard and the number of shards
      */
     public static void main(String[] args) {
 
@@ -29,11 +32,22 @@ public class ExportShortestPathMatrix {
 
             int nThreads = Integer.parseInt(args[0]);
 
+            int shardIndex = 0;
+            int shardCount = 1;
+
+            if (args.length >= 3) {
+
+                shardIndex = Integer.parseInt(args[1]);
+                shardCount = Integer.parseInt(args[2]);
+
+            }
+
             ExportShortestPathMatrix espm = new ExportShortestPathMatrix();
-            espm.exportMatrices(nThreads);
+            espm.exportMatrices(nThreads, shardIndex, shardCount);
 
         } catch (Throwable e) {
             e.printStackTrace();
+            System.exit(1);
         }
     }
 
@@ -44,6 +58,20 @@ public class ExportShortestPathMatrix {
 
     }
 
+    /**
+     * Returns the file where to store the paths of a shard.
+     *
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     *
+     * @return the file where to store the paths of a shard
+     */
+    public static File getShardFile(int shardIndex, int shardCount) {
+
+        return new File(NetworkPool.reactomePathFile + ".shard-" + shardIndex + "-of-" + shardCount);
+
+    }
+
     /**
      * Export the shortest paths matrices for all implemented graphs.
      *
@@ -51,25 +79,65 @@ public class ExportShortestPathMatrix {
      */
     public void exportMatrices(int nThreads) {
 
+        exportMatrices(nThreads, 0, 1);
+
+    }
+
+    /**
+     * Export the shortest paths matrices for all implemented graphs. If more
+     * than one shard is used, only the paths of the given shard are exported,
+     * without distances.
+     *
+     * @param nThreads the number of threads to use
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     */
+    public void exportMatrices(int nThreads, int shardIndex, int shardCount) {
+
+        boolean sharded = shardCount > 1;
+
         String mainTask = "    Reactome";
         progressHandler.start(mainTask);
 
         String task = "Reactome - Import";
         progressHandler.start(task);
-        Graph graph = NetworkPool.getReactomeGraph();
+        CsrGraph graph = NetworkPool.getReactomeCsrGraph();
         progressHandler.end(task);
 
         task = "Reactome - Computing shortest path";
         progressHandler.start(task);
         
-        File pathFile = new File(NetworkPool.reactomePathFile);
-        if (pathFile.exists()) {
-            pathFile.delete();
+        File pathFile = sharded ? getShardFile(shardIndex, shardCount) : new File(NetworkPool.reactomePathFile);
+        File distanceFile = sharded ? null : new File(NetworkPool.reactomeDistanceFile);
+        File checkpointFile = new File(pathFile.getPath() + ".checkpoint");
+
+        // Start from scratch unless a previous run was interrupted
+        if (!checkpointFile.exists()) {
+
+            if (pathFile.exists()) {
+                pathFile.delete();
+            }
+
+            if (distanceFile != null && distanceFile.exists()) {
+                distanceFile.delete();
+            }
         }
-        
+
         ShortestPath shortestPath = new ShortestPath(graph, pathFile);
+
+        if (sharded) {
+
+            shortestPath.setShard(shardIndex, shardCount);
+
+        } else {
+
+            shortestPath.setDistanceFile(distanceFile, false);
+
+        }
+
+        shortestPath.setCheckpointFile(checkpointFile);
         shortestPath.computeMatrix(nThreads);
-        
+
         progressHandler.end(task);
 
         progressHandler.end(mainTask);
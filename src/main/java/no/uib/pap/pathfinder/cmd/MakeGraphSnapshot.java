@@ -0,0 +1,61 @@
+package no.uib.pap.pathfinder.cmd;
+
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.util.ProgressHandler;
+
+/**
+ * Writes the binary snapshots of the graphs available in the pool, or checks
+ * that the existing snapshots are up to date. To be run before starting the
+ * shards of ExportShortestPathMatrix, so that the shards only read the
+ * snapshots.
+ *
+ * @author Marc Vaudel
+ */
+public class MakeGraphSnapshot {
+
+    /**
+     * A simple progress handler.
+     */
+    private ProgressHandler progressHandler = new ProgressHandler();
+
+    /**
+     * Writes the snapshots of the graphs available in the pool.
+     *
+     * @param args the command line arguments, none
+     */
+    public static void main(String[] args) {
+
+        try {
+
+            MakeGraphSnapshot mgs = new MakeGraphSnapshot();
+            mgs.makeSnapshots();
+
+        } catch (Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Constructor.
+     */
+    public MakeGraphSnapshot() {
+
+    }
+
+    /**
+     * Writes the snapshots of all implemented graphs if missing or stale.
+     */
+    public void makeSnapshots() {
+
+        String task = "Reactome - Snapshot";
+        progressHandler.start(task);
+
+        CsrGraph graph = NetworkPool.getReactomeCsrGraph();
+        System.out.println(graph.getNVertices() + " vertices, " + graph.getNEdges() + " edges.");
+
+        progressHandler.end(task);
+
+    }
+}
@@ -0,0 +1,86 @@
+package no.uib.pap.pathfinder.cmd;
+
+import java.io.File;
+import java.io.IOException;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.PathFileMerger;
+import no.uib.pap.pathfinder.util.ProgressHandler;
+
+/**
+ * Assembles the shards exported by ExportShortestPathMatrix into the final
+ * path and distance files.
+ *
+ * @author Marc Vaudel
+ */
+public class MergeShortestPathMatrix {
+
+    /**
+     * A simple progress handler.
+     */
+    private ProgressHandler progressHandler = new ProgressHandler();
+
+    /**
+     * Merges the shards of the shortest path matrix.
+     *
+     * @param args the command line arguments: the number of shards
+     */
+    public static void main(String[] args) {
+
+        try {
+
+            int shardCount = Integer.parseInt(args[0]);
+
+            MergeShortestPathMatrix mspm = new MergeShortestPathMatrix();
+            mspm.mergeMatrices(shardCount);
+
+        } catch (Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Constructor.
+     */
+    public MergeShortestPathMatrix() {
+
+    }
+
+    /**
+     * Merges the shards of the shortest paths matrices for all implemented
+     * graphs. The shard files are kept.
+     *
+     * @param shardCount the number of shards
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * or writing the files
+     */
+    public void mergeMatrices(int shardCount) throws IOException {
+
+        String task = "Reactome - Merging " + shardCount + " shards";
+        progressHandler.start(task);
+
+        File[] shardFiles = new File[shardCount];
+
+        for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+
+            shardFiles[shardIndex] = ExportShortestPathMatrix.getShardFile(shardIndex, shardCount);
+
+        }
+
+        File pathFile = new File(NetworkPool.reactomePathFile);
+        if (pathFile.exists()) {
+            pathFile.delete();
+        }
+
+        File distanceFile = new File(NetworkPool.reactomeDistanceFile);
+        if (distanceFile.exists()) {
+            distanceFile.delete();
+        }
+
+        PathFileMerger.merge(shardFiles, pathFile, distanceFile, false);
+
+        progressHandler.end(task);
+
+    }
+}
@@ -0,0 +1,705 @@
+package no.uib.pap.pathfinder.io.network;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+
+/**
+ * Streaming reader for graphs exported as iGraph data frames, i.e. gzipped
+ * text files with a header line followed by one "from to weight" edge per
+ * line. The bytes are tokenized directly, vertex names are interned in a
+ * primitive hash map and edges are accumulated in primitive arrays.
+ *
+ * Vertices are indexed by decreasing degree and then by name, neighbors are
+ * sorted by name. When an edge is present multiple times, the last weight is
+ * used.
+ *
+ * @author Marc Vaudel
+ */
+public class EdgeListReader {
+
+    /**
+     * The size of the read buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Powers of ten that can be represented exactly as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+    /**
+     * Boolean indicating whether the graph is directed.
+     */
+    private final boolean directed;
+    /**
+     * The bytes of the vertex names.
+     */
+    private byte[] namePool = new byte[1 << 16];
+    /**
+     * The number of bytes used in the name pool.
+     */
+    private int namePoolSize = 0;
+    /**
+     * The offset of every vertex name in the pool.
+     */
+    private int[] nameOffsets = new int[1024];
+    /**
+     * The hash of every vertex name.
+     */
+    private int[] nameHashes = new int[1024];
+    /**
+     * The number of vertices.
+     */
+    private int nVertices = 0;
+    /**
+     * Open addressing table of vertex index + 1, 0 for empty slots.
+     */
+    private int[] table = new int[2048];
+    /**
+     * The start vertex of every edge.
+     */
+    private int[] edgeSources = new int[1024];
+    /**
+     * The end vertex of every edge.
+     */
+    private int[] edgeTargets = new int[1024];
+    /**
+     * The weight of every edge.
+     */
+    private double[] edgeWeights = new double[1024];
+    /**
+     * The number of edges.
+     */
+    private int nEdges = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param directed boolean indicating whether the graph is directed
+     */
+    public EdgeListReader(boolean directed) {
+
+        this.directed = directed;
+
+    }
+
+    /**
+     * Reads a graph from a gzipped iGraph data frame.
+     *
+     * @param file the file to import
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @return the graph as parsed from the file
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the file
+     */
+    public static CsrGraph read(File file, boolean directed) throws IOException {
+
+        EdgeListReader reader = new EdgeListReader(directed);
+
+        try (InputStream inputStream = new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+
+            reader.parse(inputStream);
+
+        }
+
+        return reader.getGraph();
+
+    }
+
+    /**
+     * Parses the edges from the given stream, the first line is skipped.
+     *
+     * @param inputStream the stream to parse
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the stream
+     */
+    public void parse(InputStream inputStream) throws IOException {
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] token = new byte[256];
+        int tokenLength = 0;
+
+        boolean header = true;
+        int field = 0;
+        int from = -1;
+        int to = -1;
+
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+
+            for (int i = 0; i < read; i++) {
+
+                byte b = buffer[i];
+
+                if (header) {
+
+                    header = b != '\n';
+
+                } else if (b == ' ' || b == '\n' || b == '\r') {
+
+                    if (field == 0) {
+
+                        if (b == ' ') {
+
+                            from = intern(token, tokenLength);
+
+                        }
+
+                    } else if (field == 1) {
+
+                        to = intern(token, tokenLength);
+
+                    } else if (field == 2) {
+
+                        addEdge(from, to, parseDouble(token, tokenLength));
+
+                    }
+
+                    tokenLength = 0;
+
+                    if (b == ' ') {
+
+                        field++;
+
+                    } else {
+
+                        if (field == 1) {
+                            throw new IllegalArgumentException("Edge without weight.");
+                        }
+
+                        field = 0;
+
+                    }
+
+                } else {
+
+                    if (tokenLength == token.length) {
+
+                        token = Arrays.copyOf(token, 2 * token.length);
+
+                    }
+
+                    token[tokenLength++] = b;
+
+                }
+            }
+        }
+
+        if (field == 2) {
+
+            addEdge(from, to, parseDouble(token, tokenLength));
+
+        } else if (field == 1) {
+
+            throw new IllegalArgumentException("Edge without weight.");
+
+        }
+    }
+
+    /**
+     * Adds an edge, and the reverse edge if the graph is undirected.
+     *
+     * @param from the index of the start vertex
+     * @param to the index of the end vertex
+     * @param weight the weight of the edge
+     */
+    private void addEdge(int from, int to, double weight) {
+
+        addDirectedEdge(from, to, weight);
+
+        if (!directed) {
+
+            addDirectedEdge(to, from, weight);
+
+        }
+    }
+
+    /**
+     * Adds a directed edge.
+     *
+     * @param from the index of the start vertex
+     * @param to the index of the end vertex
+     * @param weight the weight of the edge
+     */
+    private void addDirectedEdge(int from, int to, double weight) {
+
+        if (nEdges == edgeSources.length) {
+
+            int newLength = 2 * nEdges;
+            edgeSources = Arrays.copyOf(edgeSources, newLength);
+            edgeTargets = Arrays.copyOf(edgeTargets, newLength);
+            edgeWeights = Arrays.copyOf(edgeWeights, newLength);
+
+        }
+
+        edgeSources[nEdges] = from;
+        edgeTargets[nEdges] = to;
+        edgeWeights[nEdges] = weight;
+        nEdges++;
+
+    }
+
+    /**
+     * Returns the index of the vertex with the given name, the vertex is
+     * created if not already present.
+     *
+     * @param name the bytes of the name
+     * @param length the number of bytes in the name
+     *
+     * @return the index of the vertex
+     */
+    private int intern(byte[] name, int length) {
+
+        int hash = 1;
+
+        for (int i = 0; i < length; i++) {
+
+            hash = 31 * hash + name[i];
+
+        }
+
+        hash ^= hash >>> 16;
+
+        int mask = table.length - 1;
+        int slot = hash & mask;
+
+        while (table[slot] != 0) {
+
+            int vertex = table[slot] - 1;
+
+            if (nameHashes[vertex] == hash && nameEquals(vertex, name, length)) {
+
+                return vertex;
+
+            }
+
+            slot = (slot + 1) & mask;
+
+        }
+
+        int vertex = nVertices++;
+
+        if (vertex + 1 == nameOffsets.length) {
+
+            nameOffsets = Arrays.copyOf(nameOffsets, 2 * nameOffsets.length);
+            nameHashes = Arrays.copyOf(nameHashes, 2 * nameHashes.length);
+
+        }
+
+        while (namePoolSize + length > namePool.length) {
+
+            namePool = Arrays.copyOf(namePool, 2 * namePool.length);
+
+        }
+
+        System.arraycopy(name, 0, namePool, namePoolSize, length);
+        nameOffsets[vertex] = namePoolSize;
+        namePoolSize += length;
+        nameOffsets[vertex + 1] = namePoolSize;
+        nameHashes[vertex] = hash;
+
+        table[slot] = vertex + 1;
+
+        if (2 * nVertices > table.length) {
+
+            rehash();
+
+        }
+
+        return vertex;
+
+    }
+
+    /**
+     * Indicates whether the name of the given vertex is the given name.
+     *
+     * @param vertex the index of the vertex
+     * @param name the bytes of the name
+     * @param length the number of bytes in the name
+     *
+     * @return a boolean indicating whether the name of the vertex is the
+     * given name
+     */
+    private boolean nameEquals(int vertex, byte[] name, int length) {
+
+        int offset = nameOffsets[vertex];
+
+        if (nameOffsets[vertex + 1] - offset != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+
+            if (namePool[offset + i] != name[i]) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Doubles the size of the hash table.
+     */
+    private void rehash() {
+
+        table = new int[2 * table.length];
+        int mask = table.length - 1;
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            int slot = nameHashes[vertex] & mask;
+
+            while (table[slot] != 0) {
+
+                slot = (slot + 1) & mask;
+
+            }
+
+            table[slot] = vertex + 1;
+
+        }
+    }
+
+    /**
+     * Parses a double from ASCII bytes. Decimals with up to 15 significant
+     * digits and small exponents are parsed directly, which gives the same
+     * result as Double.parseDouble, other values are delegated to
+     * Double.parseDouble.
+     *
+     * @param bytes the bytes
+     * @param length the number of bytes to parse
+     *
+     * @return the parsed value
+     */
+    public static double parseDouble(byte[] bytes, int length) {
+
+        int i = 0;
+        boolean negative = false;
+
+        if (length > 0 && (bytes[0] == '-' || bytes[0] == '+')) {
+
+            negative = bytes[0] == '-';
+            i++;
+
+        }
+
+        long mantissa = 0;
+        int nDigits = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean point = false;
+
+        for (; i < length; i++) {
+
+            byte b = bytes[i];
+
+            if (b >= '0' && b <= '9') {
+
+                digits = true;
+
+                if (mantissa != 0 || b != '0') {
+
+                    if (++nDigits > 15) {
+
+                        return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+
+                    }
+
+                    mantissa = 10 * mantissa + (b - '0');
+
+                }
+
+                if (point) {
+
+                    exponent--;
+
+                }
+
+            } else if (b == '.' && !point) {
+
+                point = true;
+
+            } else {
+
+                break;
+
+            }
+        }
+
+        if (i < length) {
+
+            if (!digits || (bytes[i] != 'e' && bytes[i] != 'E')) {
+
+                return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+
+            }
+
+            i++;
+
+            boolean negativeExponent = false;
+
+            if (i < length && (bytes[i] == '-' || bytes[i] == '+')) {
+
+                negativeExponent = bytes[i] == '-';
+                i++;
+
+            }
+
+            if (i == length || length - i > 3) {
+
+                return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+
+            }
+
+            int explicitExponent = 0;
+
+            for (; i < length; i++) {
+
+                byte b = bytes[i];
+
+                if (b < '0' || b > '9') {
+
+                    return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+
+                }
+
+                explicitExponent = 10 * explicitExponent + (b - '0');
+
+            }
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+
+        }
+
+        if (!digits || exponent < -22 || exponent > 22) {
+
+            return Double.parseDouble(new String(bytes, 0, length, StandardCharsets.US_ASCII));
+
+        }
+
+        double value = exponent >= 0
+                ? mantissa * POWERS_OF_TEN[exponent]
+                : mantissa / POWERS_OF_TEN[-exponent];
+
+        return negative ? -value : value;
+
+    }
+
+    /**
+     * Builds the graph from the edges parsed.
+     *
+     * @return the graph
+     */
+    public CsrGraph getGraph() {
+
+        // Names and their rank in alphabetical order
+        String[] names = new String[nVertices];
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            int offset = nameOffsets[vertex];
+            names[vertex] = new String(namePool, offset, nameOffsets[vertex + 1] - offset, StandardCharsets.UTF_8);
+
+        }
+
+        int[] byName = new int[nVertices];
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            byName[vertex] = vertex;
+
+        }
+
+        sortByName(byName, names);
+
+        int[] nameRanks = new int[nVertices];
+
+        for (int rank = 0; rank < nVertices; rank++) {
+
+            nameRanks[byName[rank]] = rank;
+
+        }
+
+        // Group the edges by start vertex, keeping the order of the file
+        int[] sourceOffsets = new int[nVertices + 1];
+
+        for (int edge = 0; edge < nEdges; edge++) {
+
+            sourceOffsets[edgeSources[edge] + 1]++;
+
+        }
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            sourceOffsets[vertex + 1] += sourceOffsets[vertex];
+
+        }
+
+        // Sort the edges by neighbor name and file order
+        long[] keys = new long[nEdges];
+        int[] fill = Arrays.copyOf(sourceOffsets, nVertices);
+
+        for (int edge = 0; edge < nEdges; edge++) {
+
+            keys[fill[edgeSources[edge]]++] = (((long) nameRanks[edgeTargets[edge]]) << 32) | edge;
+
+        }
+
+        // Remove duplicates keeping the last edge and compute the degrees
+        int[] degrees = new int[nVertices];
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            int start = sourceOffsets[vertex];
+            int end = sourceOffsets[vertex + 1];
+
+            Arrays.sort(keys, start, end);
+
+            int degree = 0;
+
+            for (int i = start; i < end; i++) {
+
+                if (i + 1 == end || (keys[i] >>> 32) != (keys[i + 1] >>> 32)) {
+
+                    keys[start + degree++] = keys[i];
+
+                }
+            }
+
+            degrees[vertex] = degree;
+
+        }
+
+        // Counting sort of the vertices by decreasing degree, ties sorted by name
+        int maxDegree = 0;
+
+        for (int degree : degrees) {
+
+            maxDegree = Math.max(maxDegree, degree);
+
+        }
+
+        int[] degreeStarts = new int[maxDegree + 2];
+
+        for (int degree : degrees) {
+
+            degreeStarts[maxDegree - degree + 1]++;
+
+        }
+
+        for (int i = 0; i <= maxDegree; i++) {
+
+            degreeStarts[i + 1] += degreeStarts[i];
+
+        }
+
+        int[] order = new int[nVertices];
+        int[] newIndexes = new int[nVertices];
+
+        for (int vertex : byName) {
+
+            int index = degreeStarts[maxDegree - degrees[vertex]]++;
+            order[index] = vertex;
+            newIndexes[vertex] = index;
+
+        }
+
+        // Build the compact graph in the new order
+        String[] sortedNames = new String[nVertices];
+        int[] offsets = new int[nVertices + 1];
+
+        for (int index = 0; index < nVertices; index++) {
+
+            int vertex = order[index];
+            sortedNames[index] = names[vertex];
+            offsets[index + 1] = offsets[index] + degrees[vertex];
+
+        }
+
+        int[] neighbors = new int[offsets[nVertices]];
+        double[] weights = new double[offsets[nVertices]];
+
+        for (int index = 0; index < nVertices; index++) {
+
+            int vertex = order[index];
+            int start = sourceOffsets[vertex];
+            int offset = offsets[index];
+
+            for (int i = 0; i < degrees[vertex]; i++) {
+
+                int edge = (int) keys[start + i];
+                neighbors[offset + i] = newIndexes[edgeTargets[edge]];
+                weights[offset + i] = edgeWeights[edge];
+
+            }
+        }
+
+        return new CsrGraph(sortedNames, offsets, neighbors, weights);
+
+    }
+
+    /**
+     * Sorts the vertices by name.
+     *
+     * @param vertices the indexes of the vertices to sort
+     * @param names the names of the vertices
+     */
+    private static void sortByName(int[] vertices, String[] names) {
+
+        int[] buffer = new int[vertices.length];
+        mergeSort(vertices, buffer, 0, vertices.length, names);
+
+    }
+
+    /**
+     * Merge sort of vertices by name between the given indexes.
+     *
+     * @param vertices the indexes of the vertices to sort
+     * @param buffer a buffer of the same size as the vertices
+     * @param start the first index, included
+     * @param end the last index, excluded
+     * @param names the names of the vertices
+     */
+    private static void mergeSort(int[] vertices, int[] buffer, int start, int end, String[] names) {
+
+        if (end - start < 2) {
+            return;
+        }
+
+        int middle = (start + end) >>> 1;
+
+        mergeSort(vertices, buffer, start, middle, names);
+        mergeSort(vertices, buffer, middle, end, names);
+
+        System.arraycopy(vertices, start, buffer, start, end - start);
+
+        int i = start;
+        int j = middle;
+
+        for (int k = start; k < end; k++) {
+
+            if (j == end || i < middle && names[buffer[i]].compareTo(names[buffer[j]]) <= 0) {
+
+                vertices[k] = buffer[i++];
+
+            } else {
+
+                vertices[k] = buffer[j++];
+
+            }
+        }
+    }
+}
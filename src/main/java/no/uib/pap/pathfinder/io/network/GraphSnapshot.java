@@ -0,0 +1,338 @@
+package no.uib.pap.pathfinder.io.network;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
+
+/**
+ * Binary snapshot of a compact graph, allowing to load a graph by mapping a
+ * file instead of parsing it. The file is organized as follows:
+ *
+ * - header: magic number, version, size and CRC32 checksum of the source file,
+ * directed flag, number of vertices, number of edges, number of bytes per
+ * weight
+ *
+ * - vertex name table: offsets of the names (nVertices + 1 ints) followed by
+ * the UTF-8 bytes of the names
+ *
+ * - the offsets, neighbors and weights arrays of the graph
+ *
+ * - trailer: CRC32 checksum of the header and arrays, followed by the magic
+ * number.
+ *
+ * The snapshot is written to a temporary file in the same folder which is
+ * then renamed, the trailer is written last, so that a reader never sees a
+ * partially written snapshot.
+ *
+ * @author Marc Vaudel
+ */
+public class GraphSnapshot {
+
+    /**
+     * Magic number identifying snapshot files.
+     */
+    public static final int MAGIC = 0x50464753;
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4;
+    /**
+     * The size of the trailer in bytes.
+     */
+    public static final int TRAILER_SIZE = 8 + 4;
+
+    /**
+     * Computes the CRC32 checksum of a file.
+     *
+     * @param file the file
+     *
+     * @return the checksum of the file
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the file
+     */
+    public static long getChecksum(File file) throws IOException {
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[1 << 16];
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+
+                crc.update(buffer, 0, read);
+
+            }
+        }
+
+        return crc.getValue();
+
+    }
+
+    /**
+     * Writes a snapshot of the graph.
+     *
+     * @param graph the graph
+     * @param snapshotFile the file where to write the snapshot
+     * @param sourceFile the file the graph was parsed from
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the file
+     */
+    public static void write(CsrGraph graph, File snapshotFile, File sourceFile, boolean directed) throws IOException {
+
+        int nVertices = graph.getNVertices();
+        int nEdges = graph.getNEdges();
+        int weightSize = graph.weights != null ? 8 : 4;
+
+        byte[][] names = new byte[nVertices][];
+        long namesSize = 0;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            names[i] = graph.names[i].getBytes(StandardCharsets.UTF_8);
+            namesSize += names[i].length;
+
+        }
+
+        long size = HEADER_SIZE
+                + 4l * (nVertices + 1) + namesSize
+                + 4l * (nVertices + 1) + 4l * nEdges + ((long) weightSize) * nEdges
+                + TRAILER_SIZE;
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph too large for a snapshot (" + size + " bytes).");
+        }
+
+        File folder = snapshotFile.getAbsoluteFile().getParentFile();
+        File tempFile = File.createTempFile(snapshotFile.getName(), ".tmp", folder);
+
+        try {
+
+            try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+
+                CheckedOutputStream checkedOutputStream = new CheckedOutputStream(fileOutputStream, new CRC32());
+                DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(checkedOutputStream, 1 << 16));
+
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(VERSION);
+                outputStream.writeLong(sourceFile.length());
+                outputStream.writeLong(getChecksum(sourceFile));
+                outputStream.writeInt(directed ? 1 : 0);
+                outputStream.writeInt(nVertices);
+                outputStream.writeInt(nEdges);
+                outputStream.writeInt(weightSize);
+
+                int nameOffset = 0;
+                outputStream.writeInt(nameOffset);
+
+                for (byte[] name : names) {
+
+                    nameOffset += name.length;
+                    outputStream.writeInt(nameOffset);
+
+                }
+
+                for (byte[] name : names) {
+
+                    outputStream.write(name);
+
+                }
+
+                for (int offset : graph.offsets) {
+
+                    outputStream.writeInt(offset);
+
+                }
+
+                for (int neighbor : graph.neighbors) {
+
+                    outputStream.writeInt(neighbor);
+
+                }
+
+                if (graph.weights != null) {
+
+                    for (double weight : graph.weights) {
+
+                        outputStream.writeDouble(weight);
+
+                    }
+
+                } else {
+
+                    for (float weight : graph.floatWeights) {
+
+                        outputStream.writeFloat(weight);
+
+                    }
+                }
+
+                outputStream.flush();
+
+                outputStream.writeLong(checkedOutputStream.getChecksum().getValue());
+                outputStream.writeInt(MAGIC);
+                outputStream.flush();
+
+                fileOutputStream.getFD().sync();
+
+            }
+
+            Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        } finally {
+
+            tempFile.delete();
+
+        }
+    }
+
+    /**
+     * Computes the CRC32 checksum of the bytes of a buffer from the start to
+     * the given position, the position of the buffer is set to zero.
+     *
+     * @param buffer the buffer
+     * @param length the number of bytes to include
+     *
+     * @return the checksum of the bytes
+     */
+    private static long getChecksum(MappedByteBuffer buffer, int length) {
+
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[1 << 16];
+
+        ((Buffer) buffer).position(0);
+
+        for (int remaining = length; remaining > 0;) {
+
+            int read = Math.min(remaining, bytes.length);
+            buffer.get(bytes, 0, read);
+            crc.update(bytes, 0, read);
+            remaining -= read;
+
+        }
+
+        ((Buffer) buffer).position(0);
+
+        return crc.getValue();
+
+    }
+
+    /**
+     * Reads a snapshot if it was made from the given source file, returns
+     * null if the snapshot is missing, stale, incomplete, corrupted or of
+     * another version.
+     *
+     * @param snapshotFile the snapshot file
+     * @param sourceFile the file the graph was parsed from
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @return the graph, null if the snapshot cannot be used
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the file
+     */
+    public static CsrGraph read(File snapshotFile, File sourceFile, boolean directed) throws IOException {
+
+        if (!snapshotFile.exists() || snapshotFile.length() < HEADER_SIZE + TRAILER_SIZE) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(snapshotFile, "r")) {
+
+            FileChannel fc = raf.getChannel();
+            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+
+            try {
+
+                int payloadSize = buffer.capacity() - TRAILER_SIZE;
+
+                if (buffer.getInt(payloadSize + 8) != MAGIC
+                        || buffer.getLong(payloadSize) != getChecksum(buffer, payloadSize)) {
+
+                    return null;
+
+                }
+
+                if (buffer.getInt() != MAGIC
+                        || buffer.getInt() != VERSION
+                        || buffer.getLong() != sourceFile.length()
+                        || buffer.getLong() != getChecksum(sourceFile)
+                        || buffer.getInt() != (directed ? 1 : 0)) {
+
+                    return null;
+
+                }
+
+                int nVertices = buffer.getInt();
+                int nEdges = buffer.getInt();
+                int weightSize = buffer.getInt();
+
+                int[] nameOffsets = new int[nVertices + 1];
+                buffer.asIntBuffer().get(nameOffsets);
+                ((Buffer) buffer).position(buffer.position() + 4 * nameOffsets.length);
+
+                byte[] nameBytes = new byte[nameOffsets[nVertices]];
+                buffer.get(nameBytes);
+
+                String[] names = new String[nVertices];
+
+                for (int i = 0; i < nVertices; i++) {
+
+                    names[i] = new String(nameBytes, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i], StandardCharsets.UTF_8);
+
+                }
+
+                int[] offsets = new int[nVertices + 1];
+                buffer.asIntBuffer().get(offsets);
+                ((Buffer) buffer).position(buffer.position() + 4 * offsets.length);
+
+                int[] neighbors = new int[nEdges];
+                buffer.asIntBuffer().get(neighbors);
+                ((Buffer) buffer).position(buffer.position() + 4 * nEdges);
+
+                if (weightSize == 8) {
+
+                    double[] weights = new double[nEdges];
+                    buffer.asDoubleBuffer().get(weights);
+
+                    return new CsrGraph(names, offsets, neighbors, weights);
+
+                } else {
+
+                    float[] weights = new float[nEdges];
+                    buffer.asFloatBuffer().get(weights);
+
+                    return new CsrGraph(names, offsets, neighbors, weights);
+
+                }
+
+            } finally {
+
+                closeBuffer(buffer);
+
+            }
+        }
+    }
+}
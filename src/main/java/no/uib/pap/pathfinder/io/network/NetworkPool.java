@@ -1,20 +1,10 @@
 package no.uib.pap.pathfinder.io.network;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.util.HashMap;
-import java.util.Map.Entry;
-import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.zip.GZIPInputStream;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
 import no.uib.pap.pathfinder.model.graph.Graph;
 import no.uib.pap.pathfinder.model.graph.Vertex;
-import static no.uib.pap.pathfinder.util.Utils.encoding;
 
 /**
  * This class provides preset graphs.
@@ -27,10 +17,18 @@ public class NetworkPool {
      * The file where the Reactome network is stored.
      */
     public static final String reactomeFile = "resources/networks/reactome/reactome_main_component.gz";
+    /**
+     * The file where the binary snapshot of the Reactome network is stored.
+     */
+    public static final String reactomeSnapshotFile = "resources/networks/reactome/reactome_main_component.graph";
     /**
      * The file where the Reactome paths are stored.
      */
     public static final String reactomePathFile = "resources/paths/reactome";
+    /**
+     * The file where the Reactome distances are stored.
+     */
+    public static final String reactomeDistanceFile = "resources/paths/reactome_distances";
 
     /**
      * Returns a simple test graph.
@@ -105,154 +103,101 @@ public class NetworkPool {
      */
     public static Graph getReactomeGraph() {
 
-        return getGraphFromDataFrame(new File(reactomeFile), false);
+        return getReactomeCsrGraph().toGraph();
 
     }
 
     /**
-     * Returns the a graph from an iGraph data frame.
+     * Returns the Reactome graph in compact representation.
      *
-     * @param file the file to import
-     * @param directed boolean indicating whether the graph is directed
-     *
-     * @return the graph as parsed from the file
+     * @return the Reactome graph in compact representation
      */
-    private static Graph getGraphFromDataFrame(File file, boolean directed) {
-
-        try {
-
-            InputStream fileStream = new FileInputStream(file);
-            InputStream gzipStream = new GZIPInputStream(fileStream);
-            Reader decoder = new InputStreamReader(gzipStream, encoding);
-
-            try (BufferedReader br = new BufferedReader(decoder)) {
-
-                HashMap<String, Integer> verticesNames = new HashMap<>();
-                HashMap<String, HashMap<String, Double>> edgesMap = new HashMap<>();
-                int vertexCount = 0;
-
-                String line = br.readLine();
-                while ((line = br.readLine()) != null) {
-
-                    String[] lineSplit = line.split(" ");
-                    String from = lineSplit[0];
-                    String to = lineSplit[1];
-                    double weight = Double.parseDouble(lineSplit[2]);
-
-                    Integer fromI = verticesNames.get(from);
-
-                    if (fromI == null) {
-
-                        fromI = vertexCount++;
-                        verticesNames.put(from, fromI);
-
-                    }
-
-                    Integer toI = verticesNames.get(to);
-
-                    if (toI == null) {
-
-                        toI = vertexCount++;
-                        verticesNames.put(to, toI);
-
-                    }
-
-                    HashMap<String, Double> fromEdges = edgesMap.get(from);
-
-                    if (fromEdges == null) {
-
-                        fromEdges = new HashMap<>(1);
-                        edgesMap.put(from, fromEdges);
-
-                    }
-
-                    fromEdges.put(to, weight);
-
-                    if (!directed) {
-
-                        HashMap<String, Double> toEdges = edgesMap.get(to);
-
-                        if (toEdges == null) {
-
-                            toEdges = new HashMap<>(1);
-                            edgesMap.put(to, toEdges);
-
-                        }
+    public static CsrGraph getReactomeCsrGraph() {
 
-                        toEdges.put(from, weight);
+        return getCsrGraphFromSnapshot(new File(reactomeFile), new File(reactomeSnapshotFile), false);
 
-                    }
-                }
-
-                TreeMap<Integer, TreeSet<String>> degreeMap = new TreeMap();
-
-                for (Entry<String, HashMap<String, Double>> entry : edgesMap.entrySet()) {
-
-                    String vertex = entry.getKey();
-                    int degree = entry.getValue().size();
+    }
 
-                    TreeSet<String> degreeVertices = degreeMap.get(degree);
+    /**
+     * Returns a graph in compact representation from its binary snapshot. If
+     * the snapshot is missing or was not made from the current data frame,
+     * the data frame is parsed and the snapshot written.
+     *
+     * @param dataFrameFile the iGraph data frame
+     * @param snapshotFile the binary snapshot
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @return the graph
+     */
+    public static CsrGraph getCsrGraphFromSnapshot(File dataFrameFile, File snapshotFile, boolean directed) {
 
-                    if (degreeVertices == null) {
+        try {
 
-                        degreeVertices = new TreeSet<>();
-                        degreeMap.put(degree, degreeVertices);
+            CsrGraph graph = GraphSnapshot.read(snapshotFile, dataFrameFile, directed);
 
-                    }
+            if (graph != null) {
 
-                    degreeVertices.add(vertex);
+                return graph;
 
-                }
+            }
 
-                int[] indexes = new int[verticesNames.size()];
-                int index = 0;
+        } catch (IOException | RuntimeException e) {
 
-                for (TreeSet<String> verticesAtDegree : degreeMap.descendingMap().values()) {
+            System.out.println("Failed to read graph snapshot " + snapshotFile + ", parsing " + dataFrameFile + ".");
+            e.printStackTrace();
 
-                    for (String vertexName : verticesAtDegree) {
+        }
 
-                        indexes[verticesNames.get(vertexName)] = index++;
+        CsrGraph graph = getCsrGraphFromDataFrame(dataFrameFile, directed);
 
-                    }
-                }
+        try {
 
-                final Vertex[] vertices = new Vertex[verticesNames.size()];
-                index = 0;
+            GraphSnapshot.write(graph, snapshotFile, dataFrameFile, directed);
 
-                for (TreeSet<String> verticesAtDegree : degreeMap.descendingMap().values()) {
+        } catch (IOException | RuntimeException e) {
 
-                    for (String vertexName : verticesAtDegree) {
+            System.out.println("Failed to write graph snapshot " + snapshotFile + ".");
+            e.printStackTrace();
 
-                        TreeMap<String, Double> vertexEdges = new TreeMap(edgesMap.get(vertexName));
+        }
 
-                        int[] edges = new int[vertexEdges.size()];
-                        double[] weights = new double[vertexEdges.size()];
+        return graph;
 
-                        int i = 0;
+    }
 
-                        for (Entry<String, Double> entry2 : vertexEdges.entrySet()) {
+    /**
+     * Returns the a graph from an iGraph data frame.
+     *
+     * @param file the file to import
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @return the graph as parsed from the file
+     */
+    public static Graph getGraphFromDataFrame(File file, boolean directed) {
 
-                            String vertex2 = entry2.getKey();
-                            int originalIndex = verticesNames.get(vertex2);
-                            edges[i] = indexes[originalIndex];
-                            weights[i] = entry2.getValue();
-                            i++;
+        return getCsrGraphFromDataFrame(file, directed).toGraph();
 
-                        }
+    }
 
-                        Vertex vertex = new Vertex(vertexName, edges, weights);
-                        vertices[index++] = vertex;
+    /**
+     * Returns the a graph in compact representation from an iGraph data
+     * frame.
+     *
+     * @param file the file to import
+     * @param directed boolean indicating whether the graph is directed
+     *
+     * @return the graph as parsed from the file
+     */
+    public static CsrGraph getCsrGraphFromDataFrame(File file, boolean directed) {
 
-                    }
-                }
+        try {
 
-                return new Graph(vertices);
+            return EdgeListReader.read(file, directed);
 
-            }
         } catch (Exception e) {
 
             throw new RuntimeException(e);
-            
+
         }
     }
 }
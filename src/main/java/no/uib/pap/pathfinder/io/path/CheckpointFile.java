@@ -0,0 +1,285 @@
+package no.uib.pap.pathfinder.io.path;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A manifest of the seeds whose paths are durably written to the result
+ * files, allowing to resume an interrupted computation. The file starts with
+ * a magic number, the version of the format, the fingerprint of the graph,
+ * the code of the matrix layout, the number of vertices, the number of bytes
+ * per weight in the distance file (0 if no distance file) and the number of
+ * bytes per weight in the tree file (0 if no tree file), followed by the
+ * index of every finished seed, appended in batches as seeds finish.
+ *
+ * @author Marc Vaudel
+ */
+public class CheckpointFile {
+
+    /**
+     * Magic number identifying checkpoint files.
+     */
+    public static final int MAGIC = 0x50464350;
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4 + 4;
+    /**
+     * The file.
+     */
+    public final File file;
+    /**
+     * The random access file.
+     */
+    private final RandomAccessFile raf;
+    /**
+     * The channel to the file.
+     */
+    private final FileChannel fc;
+    /**
+     * Boolean indicating for every seed whether it is finished.
+     */
+    private final boolean[] finished;
+    /**
+     * The number of seeds finished.
+     */
+    private int nFinished = 0;
+    /**
+     * Boolean indicating whether the file was written by a previous run on
+     * the same graph with the same settings.
+     */
+    public final boolean resumed;
+
+    /**
+     * Constructor. If the file contains the checkpoint of a previous run on
+     * the same graph with the same settings, the finished seeds are loaded,
+     * otherwise the file is reset.
+     *
+     * @param checkpointFile the file
+     * @param fingerprint the fingerprint of the graph
+     * @param layout the layout of the matrix
+     * @param nVertices the number of vertices
+     * @param distanceWeightSize the number of bytes per weight in the distance
+     * file, 0 if no distance file
+     * @param treeWeightSize the number of bytes per weight in the tree file, 0
+     * if no tree file
+     */
+    public CheckpointFile(File checkpointFile, long fingerprint, MatrixLayout layout, int nVertices, int distanceWeightSize, int treeWeightSize) {
+
+        try {
+
+            file = checkpointFile;
+
+            raf = new RandomAccessFile(checkpointFile, "rw");
+            fc = raf.getChannel();
+
+            finished = new boolean[nVertices];
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(fingerprint);
+            header.putInt(layout.code);
+            header.putInt(nVertices);
+            header.putInt(distanceWeightSize);
+            header.putInt(treeWeightSize);
+            ((Buffer) header).flip();
+
+            resumed = fc.size() >= HEADER_SIZE && header.equals(read(0, HEADER_SIZE));
+
+            if (resumed) {
+
+                int nRecords = (int) ((fc.size() - HEADER_SIZE) / 4);
+
+                ByteBuffer records = read(HEADER_SIZE, 4 * nRecords);
+
+                for (int i = 0; i < nRecords; i++) {
+
+                    int origin = records.getInt();
+
+                    if (origin < 0 || origin >= nVertices) {
+                        throw new IllegalArgumentException("Unexpected seed " + origin + " in checkpoint file " + checkpointFile + ".");
+                    }
+
+                    if (!finished[origin]) {
+
+                        finished[origin] = true;
+                        nFinished++;
+
+                    }
+                }
+
+                fc.truncate(HEADER_SIZE + 4l * nRecords);
+
+            } else {
+
+                fc.truncate(0);
+                write(header, 0);
+                fc.force(false);
+
+            }
+
+        } catch (RuntimeException e) {
+
+            throw e;
+
+        } catch (Exception e) {
+
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Reads a part of the file.
+     *
+     * @param position the position in the file
+     * @param size the number of bytes to read
+     *
+     * @return a buffer containing the bytes read
+     *
+     * @throws IOException exception thrown if an error occurred while
+     * reading the file
+     */
+    private ByteBuffer read(long position, int size) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        while (buffer.hasRemaining()) {
+
+            if (fc.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        ((Buffer) buffer).flip();
+
+        return buffer;
+
+    }
+
+    /**
+     * Writes a buffer to the file.
+     *
+     * @param buffer the buffer
+     * @param position the position in the file
+     *
+     * @throws IOException exception thrown if an error occurred while
+     * writing the file
+     */
+    private void write(ByteBuffer buffer, long position) throws IOException {
+
+        while (buffer.hasRemaining()) {
+
+            position += fc.write(buffer, position);
+
+        }
+    }
+
+    /**
+     * Indicates whether the given seed is finished.
+     *
+     * @param origin the index of the origin of the seed
+     *
+     * @return a boolean indicating whether the given seed is finished
+     */
+    public synchronized boolean isFinished(int origin) {
+
+        return finished[origin];
+
+    }
+
+    /**
+     * Returns the number of seeds finished.
+     *
+     * @return the number of seeds finished
+     */
+    public synchronized int getNFinished() {
+
+        return nFinished;
+
+    }
+
+    /**
+     * Records the given seed as finished. The results of the seed must have
+     * been written to the storage device beforehand.
+     *
+     * @param origin the index of the origin of the seed
+     */
+    public void setFinished(int origin) {
+
+        setFinished(new int[]{origin}, 1);
+
+    }
+
+    /**
+     * Records the given seeds as finished, the file is written to the storage
+     * device once for all seeds. The results of the seeds must have been
+     * written to the storage device beforehand.
+     *
+     * @param origins the indexes of the origins of the seeds
+     * @param nSeeds the number of seeds to record from the start of the array
+     */
+    public synchronized void setFinished(int[] origins, int nSeeds) {
+
+        if (nSeeds == 0) {
+            return;
+        }
+
+        try {
+
+            ByteBuffer records = ByteBuffer.allocate(4 * nSeeds);
+
+            for (int i = 0; i < nSeeds; i++) {
+
+                records.putInt(origins[i]);
+
+            }
+
+            ((Buffer) records).flip();
+
+            write(records, fc.size());
+            fc.force(false);
+
+            for (int i = 0; i < nSeeds; i++) {
+
+                int origin = origins[i];
+
+                if (!finished[origin]) {
+
+                    finished[origin] = true;
+                    nFinished++;
+
+                }
+            }
+
+        } catch (Exception e) {
+
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Closes the connection to the file.
+     */
+    public void close() {
+
+        try {
+
+            fc.close();
+            raf.close();
+
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
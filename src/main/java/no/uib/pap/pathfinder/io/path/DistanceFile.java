@@ -0,0 +1,255 @@
+package no.uib.pap.pathfinder.io.path;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+
+/**
+ * A memory mapped file where the weight and number of hops of the shortest
+ * paths are stored in a dense matrix with fixed stride. The file starts with
+ * a magic number, the version of the format, the number of vertices, the
+ * number of bytes used for the weights (4 or 8) and the code of the matrix
+ * layout, followed by one record per pair of
+ * vertices at the index given by the layout. Pairs without path have an
+ * infinite weight and the UNREACHABLE hop count.
+ *
+ * @author Marc Vaudel
+ */
+public class DistanceFile {
+
+    /**
+     * Magic number identifying distance files.
+     */
+    public static final int MAGIC = 0xD15F11E0;
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4;
+    /**
+     * The maximal number of hops that can be stored.
+     */
+    public static final int MAX_HOPS = 254;
+    /**
+     * The hop count stored for pairs of vertices without path.
+     */
+    public static final int UNREACHABLE = 255;
+    /**
+     * The random access file.
+     */
+    private final RandomAccessFile raf;
+    /**
+     * The channel to the file.
+     */
+    private final FileChannel fc;
+    /**
+     * The file mapped in memory.
+     */
+    private final SegmentedMappedFile mappedFile;
+    /**
+     * Boolean indicating whether weights are stored in single precision.
+     */
+    private final boolean singlePrecision;
+    /**
+     * The number of bytes used by a record.
+     */
+    private final int stride;
+    /**
+     * The number of vertices.
+     */
+    private final int nVertices;
+    /**
+     * The layout of the matrix.
+     */
+    private final MatrixLayout layout;
+
+    /**
+     * Constructor for a triangular matrix.
+     *
+     * @param distanceFile the file where to store the distances
+     * @param nVertices the number of vertices
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     */
+    public DistanceFile(File distanceFile, int nVertices, boolean singlePrecision) {
+
+        this(distanceFile, nVertices, singlePrecision, MatrixLayout.TRIANGULAR);
+
+    }
+
+    /**
+     * Constructor, the file is overwritten.
+     *
+     * @param distanceFile the file where to store the distances
+     * @param nVertices the number of vertices
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     * @param layout the layout of the matrix
+     */
+    public DistanceFile(File distanceFile, int nVertices, boolean singlePrecision, MatrixLayout layout) {
+
+        this(distanceFile, nVertices, singlePrecision, layout, false);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param distanceFile the file where to store the distances
+     * @param nVertices the number of vertices
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     * @param layout the layout of the matrix
+     * @param resume boolean indicating whether the distances already in the
+     * file should be kept, if false the file is overwritten
+     */
+    public DistanceFile(File distanceFile, int nVertices, boolean singlePrecision, MatrixLayout layout, boolean resume) {
+
+        try {
+
+            this.singlePrecision = singlePrecision;
+            this.nVertices = nVertices;
+            this.layout = layout;
+
+            int weightSize = singlePrecision ? 4 : 8;
+            stride = getStride(weightSize);
+
+            long nPath = layout.getNPaths(nVertices);
+            long size = HEADER_SIZE + stride * nPath;
+
+            raf = new RandomAccessFile(distanceFile, "rw");
+            fc = raf.getChannel();
+
+            if (!resume) {
+
+                raf.setLength(0);
+
+            }
+
+            mappedFile = new SegmentedMappedFile(fc, size, FileChannel.MapMode.READ_WRITE);
+
+            mappedFile.putInt(0, MAGIC);
+            mappedFile.putInt(4, VERSION);
+            mappedFile.putInt(8, nVertices);
+            mappedFile.putInt(12, weightSize);
+            mappedFile.putInt(16, layout.code);
+
+        } catch (Exception e) {
+
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Returns the number of bytes used by a record.
+     *
+     * @param weightSize the number of bytes used by the weight
+     *
+     * @return the number of bytes used by a record
+     */
+    public static int getStride(int weightSize) {
+
+        return weightSize + 1;
+
+    }
+
+    /**
+     * Returns the position of the record of a pair of vertices in the file.
+     *
+     * @param pathIndex the index of the pair of vertices in the matrix
+     * @param stride the number of bytes used by a record
+     *
+     * @return the position of the record in the file
+     */
+    public static long getPosition(long pathIndex, int stride) {
+
+        return HEADER_SIZE + stride * pathIndex;
+
+    }
+
+    /**
+     * Saves the weight and number of hops between two vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     * @param weight the weight of the path
+     * @param nHops the number of edges in the path
+     */
+    public void setDistance(int from, int to, double weight, int nHops) {
+
+        if (nHops > MAX_HOPS) {
+            throw new IllegalArgumentException("Path between " + from + " and " + to + " too long for the distance file (" + nHops + " hops).");
+        }
+
+        write(from, to, weight, nHops);
+
+    }
+
+    /**
+     * Marks two vertices as not connected by any path.
+     *
+     * @param from the index of the first vertex
+     * @param to the index of the last vertex
+     */
+    public void setUnreachable(int from, int to) {
+
+        write(from, to, Double.POSITIVE_INFINITY, UNREACHABLE);
+
+    }
+
+    /**
+     * Writes the record of a pair of vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     * @param weight the weight of the path
+     * @param nHops the number of edges in the path
+     */
+    private void write(int from, int to, double weight, int nHops) {
+
+        long position = getPosition(layout.getIndex(from, to, nVertices), stride);
+
+        if (singlePrecision) {
+
+            mappedFile.putFloat(position, (float) weight);
+            mappedFile.put(position + 4, (byte) nHops);
+
+        } else {
+
+            mappedFile.putDouble(position, weight);
+            mappedFile.put(position + 8, (byte) nHops);
+
+        }
+    }
+
+    /**
+     * Writes the changes to the storage device.
+     */
+    public void force() {
+
+        mappedFile.force();
+
+    }
+
+    /**
+     * Closes the connection to the file.
+     */
+    public void close() {
+
+        try {
+
+            mappedFile.force();
+            mappedFile.close();
+            fc.close();
+            raf.close();
+
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package no.uib.pap.pathfinder.io.path;
+
+/**
+ * The layouts of the path matrix in a file.
+ *
+ * @author Marc Vaudel
+ */
+public enum MatrixLayout {
+
+    /**
+     * Lower triangular matrix, the path between two vertices is stored once
+     * for both directions, oriented from the vertex of lower index to the
+     * vertex of higher index. Suitable for undirected graphs.
+     */
+    TRIANGULAR(0),
+    /**
+     * Square matrix without diagonal, the path from a vertex to another is
+     * stored in the row of the first vertex. Suitable for directed graphs.
+     */
+    SQUARE(1);
+
+    /**
+     * The code of the layout in the file header.
+     */
+    public final int code;
+
+    /**
+     * Constructor.
+     *
+     * @param code the code of the layout in the file header
+     */
+    private MatrixLayout(int code) {
+
+        this.code = code;
+
+    }
+
+    /**
+     * Returns the layout corresponding to the given code.
+     *
+     * @param code the code of the layout in the file header
+     *
+     * @return the layout corresponding to the given code
+     */
+    public static MatrixLayout getLayout(int code) {
+
+        for (MatrixLayout layout : values()) {
+
+            if (layout.code == code) {
+                return layout;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown matrix layout: " + code + ".");
+
+    }
+
+    /**
+     * Returns the number of paths stored in the matrix.
+     *
+     * @param nVertices the number of vertices
+     *
+     * @return the number of paths stored in the matrix
+     */
+    public long getNPaths(int nVertices) {
+
+        long nPairs = ((long) nVertices) * (nVertices - 1);
+
+        return this == TRIANGULAR ? nPairs / 2 : nPairs;
+
+    }
+
+    /**
+     * Returns the index where to save the path between two different
+     * vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     * @param nVertices the number of vertices
+     *
+     * @return the index where to save the path
+     */
+    public long getIndex(int from, int to, int nVertices) {
+
+        if (this == TRIANGULAR) {
+            return PathFileUtils.getIndex(from, to);
+        }
+
+        return ((long) from) * (nVertices - 1) + (to < from ? to : to - 1);
+
+    }
+}
@@ -2,15 +2,24 @@ package no.uib.pap.pathfinder.io.path;
 
 import java.io.File;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.Arrays;
-import static no.uib.pap.pathfinder.io.path.PathFileUtils.getIndex;
+import java.util.concurrent.atomic.AtomicLong;
 import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
 import no.uib.pap.pathfinder.model.graph.Path;
 
 /**
- * A memory mapped file where paths of fixed length can be stored.
+ * A memory mapped file where paths of fixed length can be stored. The layout
+ * of the matrix is recorded in the header of the file, see PathFileHeader.
+ *
+ * The header and the path indexes are mapped once for the lifetime of the
+ * file. Paths are written by blocks: the size of the block is computed from
+ * the lengths of the paths, a range of the file is reserved for the block,
+ * and the records are written through a single mapping of the range. Blocks
+ * can be written from multiple threads as long as they contain distinct
+ * paths.
  *
  * @author Marc Vaudel
  */
@@ -25,47 +34,120 @@ public class PathFile {
      */
     private final FileChannel fc;
     /**
-     * The path indexes.
+     * The header of the file.
+     */
+    public final PathFileHeader header;
+    /**
+     * The header and path indexes mapped in memory.
      */
-    private final long[] indexes;
+    private final SegmentedMappedFile indexMapping;
     /**
-     * The current index.
+     * The position of the end of the last block reserved.
      */
-    private long currentIndex = 0;
+    private final AtomicLong currentIndex;
 
     /**
-     * Constructor.
+     * Constructor for a triangular matrix.
      *
      * @param pathFile the file containing the paths
      * @param nVertices the number of vertices
      */
     public PathFile(File pathFile, int nVertices) {
 
+        this(pathFile, nVertices, MatrixLayout.TRIANGULAR);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pathFile the file containing the paths
+     * @param nVertices the number of vertices
+     * @param layout the layout of the matrix
+     */
+    public PathFile(File pathFile, int nVertices, MatrixLayout layout) {
+
+        this(pathFile, nVertices, layout, false);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pathFile the file containing the paths
+     * @param nVertices the number of vertices
+     * @param layout the layout of the matrix
+     * @param resume boolean indicating whether the paths already in the file
+     * should be kept, if false the file is overwritten
+     */
+    public PathFile(File pathFile, int nVertices, MatrixLayout layout, boolean resume) {
+
+        this(pathFile, new PathFileHeader(0l, layout, nVertices), resume);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pathFile the file containing the paths
+     * @param header the header of the file
+     * @param resume boolean indicating whether the paths already in the file
+     * should be kept, if false the file is overwritten
+     */
+    public PathFile(File pathFile, PathFileHeader header, boolean resume) {
+
         try {
 
             raf = new RandomAccessFile(pathFile, "rw");
             fc = raf.getChannel();
 
-            int nPath = nVertices * (nVertices - 1) / 2;
-            indexes = new long[nPath + 1];
+            this.header = header;
 
-            Arrays.fill(indexes, -1l);
+            long nPath = header.nPath;
+            long size = header.getIndexPosition(nPath + 1);
 
-            int size = 8 * (nPath + 1) + 4;
+            if (resume) {
 
-            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, currentIndex, size);
+                if (fc.size() < size) {
+                    throw new IllegalArgumentException("Path file " + pathFile + " too short to be resumed.");
+                }
 
-            buffer.putInt(nPath);
+                indexMapping = new SegmentedMappedFile(fc, size, FileChannel.MapMode.READ_WRITE);
 
-            for (int i = 0; i < nPath + 1; i++) {
+                PathFileHeader fileHeader = PathFileHeader.read(indexMapping);
 
-                buffer.putLong(indexes[i]);
+                if (fileHeader.fingerprint != header.fingerprint) {
+                    throw new IllegalArgumentException("Path file " + pathFile + " was not computed on the graph to resume.");
+                }
 
-            }
+                if (fileHeader.layout != header.layout
+                        || fileHeader.nVertices != header.nVertices
+                        || fileHeader.indexesPosition != header.indexesPosition
+                        || fileHeader.shardIndex != header.shardIndex
+                        || fileHeader.shardCount != header.shardCount
+                        || fileHeader.encoding != header.encoding) {
+                    throw new IllegalArgumentException("Path file " + pathFile + " does not match the matrix to resume.");
+                }
 
-            closeBuffer(buffer);
+                currentIndex = new AtomicLong(fc.size());
+
+            } else {
+
+                raf.setLength(0);
+
+                indexMapping = new SegmentedMappedFile(fc, size, FileChannel.MapMode.READ_WRITE);
 
-            currentIndex += size;
+                header.write(indexMapping);
+
+                for (long i = 0; i < nPath + 1; i++) {
+
+                    indexMapping.putLong(header.getIndexPosition(i), -1l);
+
+                }
+
+                currentIndex = new AtomicLong(size);
+
+            }
 
         } catch (Exception e) {
 
@@ -80,13 +162,20 @@ public class PathFile {
      * @param from the index of the first vertex in the path
      * @param to the index of the last vertex in the path
      *
-     * @return the path ending on the desired vertex
+     * @return the path ending on the desired vertex, null if the vertices are
+     * the same or if no path is stored
      */
     public Path getPath(int from, int to) {
 
+        if (from == to) {
+            return null;
+        }
+
         try {
 
-            return PathFileUtils.getPath(from, to, indexes, fc);
+            long position = indexMapping.getLong(header.getIndexPosition(header.getIndex(from, to)));
+
+            return position == -1 ? null : PathFileUtils.getPath(position, fc, header.encoding);
 
         } catch (Exception e) {
 
@@ -97,6 +186,83 @@ public class PathFile {
 
     }
 
+    /**
+     * Returns the number of bytes used by the record of a path in plain
+     * encoding.
+     *
+     * @param nVertices the number of vertices in the path
+     *
+     * @return the number of bytes used by the record of a path
+     */
+    public static int getRecordSize(int nVertices) {
+
+        return 8 + 4 + 4 * nVertices;
+
+    }
+
+    /**
+     * Reserves a range of the file.
+     *
+     * @param size the size of the range in bytes
+     *
+     * @return the position of the start of the range
+     */
+    private long reserve(long size) {
+
+        return currentIndex.getAndAdd(size);
+
+    }
+
+    /**
+     * Writes a record in the encoding of the file.
+     *
+     * @param buffer the buffer where to write the record
+     * @param recordStart the position of the record in the buffer
+     * @param weight the weight of the path
+     * @param vertices the vertices of the path
+     * @param nVertices the number of vertices of the path
+     */
+    private void putRecord(ByteBuffer buffer, int recordStart, double weight, int[] vertices, int nVertices) {
+
+        if (header.encoding == RecordEncoding.COMPACT) {
+
+            if (nVertices > RecordEncoding.COMPACT_MAX_VERTICES) {
+                throw new IllegalArgumentException("Path of " + nVertices + " vertices too long for compact encoding.");
+            }
+
+            buffer.putFloat(recordStart, (float) weight);
+            buffer.put(recordStart + 4, (byte) nVertices);
+
+            int position = recordStart + 5;
+
+            for (int i = 0; i < nVertices; i++) {
+
+                int value = RecordEncoding.getDelta(vertices, i);
+
+                while ((value & ~0x7F) != 0) {
+
+                    buffer.put(position++, (byte) ((value & 0x7F) | 0x80));
+                    value >>>= 7;
+
+                }
+
+                buffer.put(position++, (byte) value);
+
+            }
+
+        } else {
+
+            buffer.putDouble(recordStart, weight);
+            buffer.putInt(recordStart + 8, nVertices);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                buffer.putInt(recordStart + 12 + 4 * i, vertices[i]);
+
+            }
+        }
+    }
+
     /**
      * Saves the path to the file.
      *
@@ -109,28 +275,137 @@ public class PathFile {
             int[] pathIndexes = path.getPath();
             int nIndexes = pathIndexes.length;
 
-            long index = currentIndex;
-            int size = 8 + 4 + 4 * nIndexes;
-
-            int pathIndex = getIndex(pathIndexes[0], pathIndexes[nIndexes - 1]);
-            setIndex(pathIndex, index);
-            setIndex(pathIndex + 1, index + size);
+            int size = header.encoding.getRecordSize(pathIndexes, nIndexes);
+            long index = reserve(size);
 
             MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, index, size);
 
-            buffer.putDouble(path.getWeight());
+            putRecord(buffer, 0, path.getWeight(), pathIndexes, nIndexes);
+
+            closeBuffer(buffer);
+
+            setIndex(header.getIndex(pathIndexes[0], pathIndexes[nIndexes - 1]), index);
 
-            buffer.putInt(nIndexes);
+        } catch (Exception e) {
 
-            for (int i = 0; i < nIndexes; i++) {
+            throw new RuntimeException(e);
 
-                buffer.putInt(pathIndexes[i]);
+        }
+    }
+
+    /**
+     * Reads the vertices of the path from the origin of a seed to a target
+     * from the shortest path tree of the seed.
+     *
+     * @param seed the seed
+     * @param target the target
+     * @param reverse boolean indicating whether the path should be read from
+     * the target to the origin
+     * @param vertices the array where to store the vertices
+     *
+     * @return the number of vertices of the path
+     */
+    private static int getVertices(SeedPathFile seed, int target, boolean reverse, int[] vertices) {
+
+        int length = seed.getLength(target);
+        int vertex = target;
+
+        for (int k = length - 1; k >= 0; k--) {
+
+            int rank = reverse ? length - 1 - k : k;
+            vertices[rank] = vertex;
+
+            if (k > 0) {
+
+                vertex = seed.getPredecessor(vertex);
+
+            }
+        }
+
+        if (vertex != seed.origin) {
+            throw new IllegalArgumentException("Path to " + target + " does not lead back to seed " + seed.origin + ".");
+        }
+
+        return length;
+
+    }
+
+    /**
+     * Saves the paths from the origin of a seed to the given targets as one
+     * block. The vertices are read from the shortest path tree of the seed.
+     *
+     * @param seed the seed
+     * @param targets the targets
+     * @param nTargets the number of targets to save from the start of the
+     * array
+     * @param reverse boolean indicating whether the paths should be saved from
+     * the target to the origin
+     */
+    public void setPaths(SeedPathFile seed, int[] targets, int nTargets, boolean reverse) {
+
+        if (nTargets == 0) {
+            return;
+        }
+
+        int maxLength = 0;
+
+        for (int i = 0; i < nTargets; i++) {
+
+            maxLength = Math.max(maxLength, seed.getLength(targets[i]));
+
+        }
+
+        int[] vertices = new int[maxLength];
+
+        long blockSize = 0;
+
+        for (int i = 0; i < nTargets; i++) {
+
+            int target = targets[i];
+
+            if (header.encoding == RecordEncoding.PLAIN) {
+
+                blockSize += getRecordSize(seed.getLength(target));
+
+            } else {
+
+                int length = getVertices(seed, target, reverse, vertices);
+                blockSize += header.encoding.getRecordSize(vertices, length);
+
+            }
+        }
+
+        if (blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Block of paths too large for a single mapping (" + blockSize + " bytes).");
+        }
+
+        long blockStart = reserve(blockSize);
+
+        try {
+
+            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, blockStart, blockSize);
+
+            int recordStart = 0;
+
+            for (int i = 0; i < nTargets; i++) {
+
+                int target = targets[i];
+                int length = getVertices(seed, target, reverse, vertices);
+
+                putRecord(buffer, recordStart, seed.getWeight(target), vertices, length);
+
+                long pathIndex = reverse ? header.getIndex(target, seed.origin) : header.getIndex(seed.origin, target);
+                setIndex(pathIndex, blockStart + recordStart);
+
+                recordStart += header.encoding.getRecordSize(vertices, length);
 
             }
 
             closeBuffer(buffer);
 
-            currentIndex += size;
+        } catch (RuntimeException e) {
+
+            throw e;
 
         } catch (Exception e) {
 
@@ -140,38 +415,124 @@ public class PathFile {
     }
 
     /**
-     * Sets the index of a path to the array of indexes and to the file.
-     * 
-     * @param pathIndex the index of the path
-     * @param index the index in the file
+     * Copies paths from other path files as one block. The other files must
+     * use the same record encoding.
+     *
+     * @param sources the other path files mapped in memory
+     * @param sourceIndexes the index of the source of every path
+     * @param positions the position of every path in its source
+     * @param pathIndexes the index of every path
+     * @param nPaths the number of paths to copy from the start of the arrays
      */
-    public void setIndex(int pathIndex, long index) {
+    public void copyPaths(SegmentedMappedFile[] sources, int[] sourceIndexes, long[] positions, long[] pathIndexes, int nPaths) {
+
+        if (nPaths == 0) {
+            return;
+        }
+
+        long blockSize = 0;
+
+        for (int i = 0; i < nPaths; i++) {
+
+            blockSize += PathFileUtils.getRecordSize(positions[i], sources[sourceIndexes[i]], header.encoding);
+
+        }
+
+        if (blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Block of paths too large for a single mapping (" + blockSize + " bytes).");
+        }
+
+        long blockStart = reserve(blockSize);
 
         try {
 
-            indexes[pathIndex] = index;
+            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, blockStart, blockSize);
+
+            int recordStart = 0;
 
-            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, 4 + 8 * pathIndex, 8);
+            for (int i = 0; i < nPaths; i++) {
 
-            buffer.putLong(index);
+                SegmentedMappedFile source = sources[sourceIndexes[i]];
+                long position = positions[i];
+                int recordSize = PathFileUtils.getRecordSize(position, source, header.encoding);
+
+                int offset = 0;
+
+                for (; offset + 8 <= recordSize; offset += 8) {
+
+                    buffer.putLong(recordStart + offset, source.getLong(position + offset));
+
+                }
+
+                for (; offset < recordSize; offset++) {
+
+                    buffer.put(recordStart + offset, source.get(position + offset));
+
+                }
+
+                setIndex(pathIndexes[i], blockStart + recordStart);
+
+                recordStart += recordSize;
+
+            }
 
             closeBuffer(buffer);
 
+        } catch (RuntimeException e) {
+
+            throw e;
+
+        } catch (Exception e) {
+
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Writes the paths and their indexes to the storage device. The blocks of
+     * paths are written through mappings already released, they are written
+     * by forcing the channel.
+     */
+    public void force() {
+
+        try {
+
+            fc.force(false);
+            indexMapping.force();
+
         } catch (Exception e) {
 
             throw new RuntimeException(e);
 
         }
+    }
+
+    /**
+     * Sets the index of a path in the file.
+     *
+     * @param pathIndex the index of the path
+     * @param index the index in the file
+     */
+    public void setIndex(long pathIndex, long index) {
+
+        indexMapping.putLong(header.getIndexPosition(pathIndex), index);
 
     }
 
     /**
-     * Closes the connection to the file.
+     * Closes the connection to the file, the last index is set to the end of
+     * the paths.
      */
     public void close() {
 
         try {
 
+            setIndex(header.nPath, currentIndex.get());
+
+            indexMapping.force();
+            indexMapping.close();
+
             fc.close();
             raf.close();
 
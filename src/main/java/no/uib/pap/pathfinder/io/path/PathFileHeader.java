@@ -0,0 +1,258 @@
+package no.uib.pap.pathfinder.io.path;
+
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+
+/**
+ * The header of a path file. The header starts with a negative magic number,
+ * followed by the version of the format, the fingerprint of the graph as a
+ * long, the code of the matrix layout, the number of vertices, the number of
+ * paths as a long, the index of the shard, the number of shards and the code
+ * of the record encoding. The indexes of the paths follow the header.
+ *
+ * A file computed in shards contains only the paths of the seeds whose index
+ * modulo the number of shards equals the index of the shard. A complete file
+ * has a single shard.
+ *
+ * Files written before the header was introduced start with the number of
+ * paths, a positive number, directly followed by the indexes of the paths in
+ * triangular layout. They are still supported for reading.
+ *
+ * @author Marc Vaudel
+ */
+public class PathFileHeader {
+
+    /**
+     * Magic number identifying path files with header, negative to be
+     * distinguished from the number of paths starting legacy files.
+     */
+    public static final int MAGIC = 0xFA7F11E0;
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 8 + 4 + 4 + 4;
+    /**
+     * The size of the header of legacy files in bytes.
+     */
+    public static final int LEGACY_HEADER_SIZE = 4;
+    /**
+     * The fingerprint of the graph, 0 if not known.
+     */
+    public final long fingerprint;
+    /**
+     * The layout of the matrix.
+     */
+    public final MatrixLayout layout;
+    /**
+     * The number of vertices, -1 if not known.
+     */
+    public final int nVertices;
+    /**
+     * The number of paths.
+     */
+    public final long nPath;
+    /**
+     * The position of the path indexes in the file.
+     */
+    public final long indexesPosition;
+    /**
+     * The index of the shard.
+     */
+    public final int shardIndex;
+    /**
+     * The number of shards.
+     */
+    public final int shardCount;
+    /**
+     * The encoding of the path records.
+     */
+    public final RecordEncoding encoding;
+
+    /**
+     * Constructor.
+     *
+     * @param fingerprint the fingerprint of the graph, 0 if not known
+     * @param layout the layout of the matrix
+     * @param nVertices the number of vertices, -1 if not known
+     * @param nPath the number of paths
+     * @param indexesPosition the position of the path indexes in the file
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     * @param encoding the encoding of the path records
+     */
+    public PathFileHeader(long fingerprint, MatrixLayout layout, int nVertices, long nPath, long indexesPosition, int shardIndex, int shardCount, RecordEncoding encoding) {
+
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount + ".");
+        }
+
+        this.fingerprint = fingerprint;
+        this.layout = layout;
+        this.nVertices = nVertices;
+        this.nPath = nPath;
+        this.indexesPosition = indexesPosition;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.encoding = encoding;
+
+    }
+
+    /**
+     * Constructor for a new complete file.
+     *
+     * @param fingerprint the fingerprint of the graph, 0 if not known
+     * @param layout the layout of the matrix
+     * @param nVertices the number of vertices
+     */
+    public PathFileHeader(long fingerprint, MatrixLayout layout, int nVertices) {
+
+        this(fingerprint, layout, nVertices, 0, 1);
+
+    }
+
+    /**
+     * Constructor for a new shard file.
+     *
+     * @param fingerprint the fingerprint of the graph, 0 if not known
+     * @param layout the layout of the matrix
+     * @param nVertices the number of vertices
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     */
+    public PathFileHeader(long fingerprint, MatrixLayout layout, int nVertices, int shardIndex, int shardCount) {
+
+        this(fingerprint, layout, nVertices, shardIndex, shardCount, RecordEncoding.PLAIN);
+
+    }
+
+    /**
+     * Constructor for a new shard file with the given record encoding.
+     *
+     * @param fingerprint the fingerprint of the graph, 0 if not known
+     * @param layout the layout of the matrix
+     * @param nVertices the number of vertices
+     * @param shardIndex the index of the shard
+     * @param shardCount the number of shards
+     * @param encoding the encoding of the path records
+     */
+    public PathFileHeader(long fingerprint, MatrixLayout layout, int nVertices, int shardIndex, int shardCount, RecordEncoding encoding) {
+
+        this(fingerprint, layout, nVertices, layout.getNPaths(nVertices), HEADER_SIZE, shardIndex, shardCount, encoding);
+
+    }
+
+    /**
+     * Reads the header of a file mapped in memory.
+     *
+     * @param mappedFile the file mapped in memory
+     *
+     * @return the header of the file
+     */
+    public static PathFileHeader read(SegmentedMappedFile mappedFile) {
+
+        int first = mappedFile.getInt(0);
+
+        if (first >= 0) {
+
+            return new PathFileHeader(0l, MatrixLayout.TRIANGULAR, -1, first, LEGACY_HEADER_SIZE, 0, 1, RecordEncoding.PLAIN);
+
+        }
+
+        if (first != MAGIC) {
+            throw new IllegalArgumentException("Not a path file.");
+        }
+
+        int version = mappedFile.getInt(4);
+
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported path file version: " + version + ".");
+        }
+
+        long fingerprint = mappedFile.getLong(8);
+        MatrixLayout layout = MatrixLayout.getLayout(mappedFile.getInt(16));
+        int nVertices = mappedFile.getInt(20);
+        long nPath = mappedFile.getLong(24);
+        int shardIndex = mappedFile.getInt(32);
+        int shardCount = mappedFile.getInt(36);
+        RecordEncoding encoding = RecordEncoding.getEncoding(mappedFile.getInt(40));
+
+        return new PathFileHeader(fingerprint, layout, nVertices, nPath, HEADER_SIZE, shardIndex, shardCount, encoding);
+
+    }
+
+    /**
+     * Writes the header to a file mapped in memory.
+     *
+     * @param mappedFile the file mapped in memory
+     */
+    public void write(SegmentedMappedFile mappedFile) {
+
+        mappedFile.putInt(0, MAGIC);
+        mappedFile.putInt(4, VERSION);
+        mappedFile.putLong(8, fingerprint);
+        mappedFile.putInt(16, layout.code);
+        mappedFile.putInt(20, nVertices);
+        mappedFile.putLong(24, nPath);
+        mappedFile.putInt(32, shardIndex);
+        mappedFile.putInt(36, shardCount);
+        mappedFile.putInt(40, encoding.code);
+
+    }
+
+    /**
+     * Indicates whether the file contains only the paths of a shard.
+     *
+     * @return a boolean indicating whether the file contains only the paths
+     * of a shard
+     */
+    public boolean isPartial() {
+
+        return shardCount > 1;
+
+    }
+
+    /**
+     * Indicates whether the given seed belongs to the shard.
+     *
+     * @param origin the index of the origin of the seed
+     *
+     * @return a boolean indicating whether the given seed belongs to the
+     * shard
+     */
+    public boolean isInShard(int origin) {
+
+        return origin % shardCount == shardIndex;
+
+    }
+
+    /**
+     * Returns the index of the path between two different vertices.
+     *
+     * @param from the index of the first vertex in the path
+     * @param to the index of the last vertex in the path
+     *
+     * @return the index of the path
+     */
+    public long getIndex(int from, int to) {
+
+        return layout.getIndex(from, to, nVertices);
+
+    }
+
+    /**
+     * Returns the position in the file where the index of the given path is
+     * stored.
+     *
+     * @param pathIndex the index of the path
+     *
+     * @return the position in the file where the index of the path is stored
+     */
+    public long getIndexPosition(long pathIndex) {
+
+        return indexesPosition + 8l * pathIndex;
+
+    }
+}
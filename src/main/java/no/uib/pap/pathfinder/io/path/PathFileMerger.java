@@ -0,0 +1,226 @@
+package no.uib.pap.pathfinder.io.path;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+
+/**
+ * Assembles the partial path files computed in shards into a complete path
+ * file, and optionally the corresponding distance file. The paths are copied
+ * in the order of the matrix.
+ *
+ * @author Marc Vaudel
+ */
+public class PathFileMerger {
+
+    /**
+     * The maximal number of paths copied at once.
+     */
+    public static final int BATCH_SIZE = 1 << 20;
+    /**
+     * The maximal number of bytes copied at once.
+     */
+    public static final long BATCH_BYTES = 1l << 26;
+
+    /**
+     * Merges the given shard files.
+     *
+     * @param shardFiles the files of all shards
+     * @param pathFile the file where to write the complete paths
+     * @param distanceFile the file where to write the distances, null if not
+     * needed
+     * @param singlePrecision boolean indicating whether the distances should
+     * be stored in single precision
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * or writing the files
+     */
+    public static void merge(File[] shardFiles, File pathFile, File distanceFile, boolean singlePrecision) throws IOException {
+
+        int nShards = shardFiles.length;
+
+        RandomAccessFile[] rafs = new RandomAccessFile[nShards];
+        SegmentedMappedFile[] sources = new SegmentedMappedFile[nShards];
+        PathFileHeader[] headers = new PathFileHeader[nShards];
+
+        try {
+
+            for (int i = 0; i < nShards; i++) {
+
+                rafs[i] = new RandomAccessFile(shardFiles[i], "r");
+                FileChannel fc = rafs[i].getChannel();
+                sources[i] = new SegmentedMappedFile(fc);
+                headers[i] = PathFileHeader.read(sources[i]);
+
+            }
+
+            PathFileHeader header = checkShards(shardFiles, headers);
+            int nVertices = header.nVertices;
+            MatrixLayout layout = header.layout;
+            RecordEncoding encoding = header.encoding;
+
+            PathFile mergedFile = new PathFile(pathFile, header, false);
+            DistanceFile distances = distanceFile == null ? null : new DistanceFile(distanceFile, nVertices, singlePrecision, layout);
+
+            int[] sourceIndexes = new int[BATCH_SIZE];
+            long[] positions = new long[BATCH_SIZE];
+            long[] pathIndexes = new long[BATCH_SIZE];
+            int nPaths = 0;
+            long batchBytes = 0;
+
+            for (int a = 0; a < nVertices; a++) {
+
+                int end = layout == MatrixLayout.TRIANGULAR ? a : nVertices;
+
+                for (int b = 0; b < end; b++) {
+
+                    if (a != b) {
+
+                        // Triangular matrices are ordered by highest vertex, square matrices by first vertex
+                        int from = layout == MatrixLayout.TRIANGULAR ? b : a;
+                        int to = layout == MatrixLayout.TRIANGULAR ? a : b;
+
+                        long pathIndex = header.getIndex(from, to);
+
+                        int source = -1;
+                        long position = -1;
+
+                        for (int i = 0; i < nShards; i++) {
+
+                            long shardPosition = sources[i].getLong(headers[i].getIndexPosition(pathIndex));
+
+                            if (shardPosition != -1) {
+
+                                if (source != -1) {
+                                    throw new IllegalArgumentException("Path between " + from + " and " + to + " found in " + shardFiles[source] + " and " + shardFiles[i] + ".");
+                                }
+
+                                source = i;
+                                position = shardPosition;
+
+                            }
+                        }
+
+                        if (source == -1) {
+
+                            if (layout == MatrixLayout.TRIANGULAR) {
+                                throw new IllegalArgumentException("Missing path between " + from + " and " + to + ".");
+                            }
+
+                            if (distances != null) {
+
+                                distances.setUnreachable(from, to);
+
+                            }
+
+                            continue;
+
+                        }
+
+                        if (distances != null) {
+
+                            int pathLength = PathFileUtils.getNVertices(position, sources[source], encoding);
+                            distances.setDistance(from, to, PathFileUtils.getWeight(position, sources[source], encoding), pathLength - 1);
+
+                        }
+
+                        sourceIndexes[nPaths] = source;
+                        positions[nPaths] = position;
+                        pathIndexes[nPaths] = pathIndex;
+                        nPaths++;
+                        batchBytes += PathFileUtils.getRecordSize(position, sources[source], encoding);
+
+                        if (nPaths == BATCH_SIZE || batchBytes >= BATCH_BYTES) {
+
+                            mergedFile.copyPaths(sources, sourceIndexes, positions, pathIndexes, nPaths);
+                            nPaths = 0;
+                            batchBytes = 0;
+
+                        }
+                    }
+                }
+            }
+
+            mergedFile.copyPaths(sources, sourceIndexes, positions, pathIndexes, nPaths);
+
+            mergedFile.close();
+
+            if (distances != null) {
+
+                distances.close();
+
+            }
+
+        } finally {
+
+            for (int i = 0; i < nShards; i++) {
+
+                if (sources[i] != null) {
+
+                    sources[i].close();
+
+                }
+
+                if (rafs[i] != null) {
+
+                    rafs[i].close();
+
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the given headers are those of all the shards of a matrix
+     * and returns the header of the complete file.
+     *
+     * @param shardFiles the files of the shards
+     * @param headers the headers of the shards
+     *
+     * @return the header of the complete file
+     */
+    private static PathFileHeader checkShards(File[] shardFiles, PathFileHeader[] headers) {
+
+        int nShards = headers.length;
+
+        if (nShards == 0) {
+            throw new IllegalArgumentException("No shard to merge.");
+        }
+
+        PathFileHeader first = headers[0];
+        boolean[] found = new boolean[nShards];
+
+        for (int i = 0; i < nShards; i++) {
+
+            PathFileHeader header = headers[i];
+
+            if (header.nVertices < 0) {
+                throw new IllegalArgumentException(shardFiles[i] + " is not a shard.");
+            }
+
+            if (header.shardCount != nShards) {
+                throw new IllegalArgumentException(shardFiles[i] + " is a shard of " + header.shardCount + ", " + nShards + " files provided.");
+            }
+
+            if (header.fingerprint != first.fingerprint) {
+                throw new IllegalArgumentException(shardFiles[i] + " was not computed on the same graph as " + shardFiles[0] + ".");
+            }
+
+            if (header.layout != first.layout || header.nVertices != first.nVertices || header.encoding != first.encoding) {
+                throw new IllegalArgumentException(shardFiles[i] + " is not a shard of the same matrix as " + shardFiles[0] + ".");
+            }
+
+            if (found[header.shardIndex]) {
+                throw new IllegalArgumentException("Shard " + header.shardIndex + " provided twice.");
+            }
+
+            found[header.shardIndex] = true;
+
+        }
+
+        return new PathFileHeader(first.fingerprint, first.layout, first.nVertices, 0, 1, first.encoding);
+
+    }
+}
@@ -1,9 +1,11 @@
 package no.uib.pap.pathfinder.io.path;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
 import no.uib.pap.pathfinder.model.graph.Path;
 
 /**
@@ -14,14 +16,14 @@ import no.uib.pap.pathfinder.model.graph.Path;
 public class PathFileUtils {
 
     /**
-     * Returns the index where to save the path.
+     * Returns the index where to save the path in a triangular matrix.
      *
      * @param from the index of the first vertex in the path
      * @param to the index of the last vertex in the path
      *
      * @return the index where to save the path
      */
-    public static int getIndex(int from, int to) {
+    public static long getIndex(int from, int to) {
 
         int low, high;
 
@@ -33,51 +35,336 @@ public class PathFileUtils {
             high = from;
         }
 
-        return high * (high - 1) / 2 + low;
+        return ((long) high) * (high - 1) / 2 + low;
 
     }
 
     /**
-     * Reads the path from the file.
+     * Reads the path stored at the given position from the file in plain
+     * encoding.
      *
-     * @param from the index of the first vertex in the path
-     * @param to the index of the last vertex in the path
-     * @param indexes the file path indexes
+     * @param position the position of the path in the file
      * @param fc the channel to the file
      *
-     * @return the path ending on the desired vertex
+     * @return the path stored at the given position
      *
      * @throws java.io.IOException exception thrown if an error occurred while
      * reading the file
      */
-    public static Path getPath(int from, int to, long[] indexes, FileChannel fc) throws IOException {
+    public static Path getPath(long position, FileChannel fc) throws IOException {
 
-        if (from == to) {
-            return null;
-        }
+        return getPath(position, fc, RecordEncoding.PLAIN);
+
+    }
+
+    /**
+     * Reads the path stored at the given position from the file.
+     *
+     * @param position the position of the path in the file
+     * @param fc the channel to the file
+     * @param encoding the encoding of the records
+     *
+     * @return the path stored at the given position
+     *
+     * @throws java.io.IOException exception thrown if an error occurred while
+     * reading the file
+     */
+    public static Path getPath(long position, FileChannel fc, RecordEncoding encoding) throws IOException {
 
-        int pathIndex = getIndex(from, to);
-        long startIndex = indexes[pathIndex];
-        int size = (int) (indexes[pathIndex + 1] - startIndex);
+        int prefixSize = encoding.getPrefixSize();
 
-        MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, startIndex, size);
+        MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, position, prefixSize);
 
-        double weight = buffer.getDouble();
+        double weight;
+        int nVertices;
 
-        int nVertices = buffer.getInt();
+        if (encoding == RecordEncoding.COMPACT) {
 
-        int[] pathIndexes = new int[nVertices];
+            weight = buffer.getFloat();
+            nVertices = buffer.get() & 0xFF;
 
-        for (int i = 0; i < nVertices; i++) {
+        } else {
 
-            int vertex = buffer.getInt();
-            pathIndexes[i] = vertex;
+            weight = buffer.getDouble();
+            nVertices = buffer.getInt();
 
         }
 
         closeBuffer(buffer);
 
+        long verticesPosition = position + prefixSize;
+        long verticesSize = Math.min(encoding.getMaxRecordSize(nVertices) - prefixSize, fc.size() - verticesPosition);
+
+        MappedByteBuffer verticesBuffer = fc.map(FileChannel.MapMode.READ_ONLY, verticesPosition, verticesSize);
+
+        int[] pathIndexes = new int[nVertices];
+
+        if (encoding == RecordEncoding.COMPACT) {
+
+            decodeVertices(verticesBuffer, nVertices, pathIndexes);
+
+        } else {
+
+            for (int i = 0; i < nVertices; i++) {
+
+                pathIndexes[i] = verticesBuffer.getInt();
+
+            }
+        }
+
+        closeBuffer(verticesBuffer);
+
         return new Path(pathIndexes, weight);
 
     }
+
+    /**
+     * Reads the path stored at the given position from a file mapped in
+     * memory in plain encoding.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     *
+     * @return the path stored at the given position
+     */
+    public static Path getPath(long position, SegmentedMappedFile mappedFile) {
+
+        return getPath(position, mappedFile, RecordEncoding.PLAIN);
+
+    }
+
+    /**
+     * Reads the path stored at the given position from a file mapped in
+     * memory.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param encoding the encoding of the records
+     *
+     * @return the path stored at the given position
+     */
+    public static Path getPath(long position, SegmentedMappedFile mappedFile, RecordEncoding encoding) {
+
+        int[] pathIndexes = new int[getNVertices(position, mappedFile, encoding)];
+        getVertices(position, mappedFile, pathIndexes, encoding);
+
+        return new Path(pathIndexes, getWeight(position, mappedFile, encoding));
+
+    }
+
+    /**
+     * Returns the weight of the path stored at the given position in plain
+     * encoding.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     *
+     * @return the weight of the path
+     */
+    public static double getWeight(long position, SegmentedMappedFile mappedFile) {
+
+        return mappedFile.getDouble(position);
+
+    }
+
+    /**
+     * Returns the weight of the path stored at the given position.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param encoding the encoding of the records
+     *
+     * @return the weight of the path
+     */
+    public static double getWeight(long position, SegmentedMappedFile mappedFile, RecordEncoding encoding) {
+
+        return encoding == RecordEncoding.COMPACT ? mappedFile.getFloat(position) : mappedFile.getDouble(position);
+
+    }
+
+    /**
+     * Returns the number of vertices of the path stored at the given position
+     * in plain encoding.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     *
+     * @return the number of vertices of the path
+     */
+    public static int getNVertices(long position, SegmentedMappedFile mappedFile) {
+
+        return mappedFile.getInt(position + 8);
+
+    }
+
+    /**
+     * Returns the number of vertices of the path stored at the given
+     * position.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param encoding the encoding of the records
+     *
+     * @return the number of vertices of the path
+     */
+    public static int getNVertices(long position, SegmentedMappedFile mappedFile, RecordEncoding encoding) {
+
+        return encoding == RecordEncoding.COMPACT ? mappedFile.get(position + 4) & 0xFF : mappedFile.getInt(position + 8);
+
+    }
+
+    /**
+     * Reads the vertices of the path stored at the given position in plain
+     * encoding into the given array, which must be large enough to hold the
+     * path.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param vertices the array where to store the vertices
+     *
+     * @return the number of vertices of the path
+     */
+    public static int getVertices(long position, SegmentedMappedFile mappedFile, int[] vertices) {
+
+        return getVertices(position, mappedFile, vertices, RecordEncoding.PLAIN);
+
+    }
+
+    /**
+     * Reads the vertices of the path stored at the given position into the
+     * given array, which must be large enough to hold the path.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param vertices the array where to store the vertices
+     * @param encoding the encoding of the records
+     *
+     * @return the number of vertices of the path
+     */
+    public static int getVertices(long position, SegmentedMappedFile mappedFile, int[] vertices, RecordEncoding encoding) {
+
+        int nVertices = getNVertices(position, mappedFile, encoding);
+        long vertexPosition = position + encoding.getPrefixSize();
+
+        if (encoding == RecordEncoding.COMPACT) {
+
+            decodeVertices(mappedFile, vertexPosition, nVertices, vertices);
+
+        } else {
+
+            for (int i = 0; i < nVertices; i++) {
+
+                vertices[i] = mappedFile.getInt(vertexPosition);
+                vertexPosition += 4;
+
+            }
+        }
+
+        return nVertices;
+
+    }
+
+    /**
+     * Decodes the vertices of a path in compact encoding from a file mapped
+     * in memory: the first vertex as varint followed by the difference
+     * between every vertex and the previous one as zigzag varint.
+     *
+     * @param mappedFile the file mapped in memory
+     * @param position the position of the first vertex
+     * @param nVertices the number of vertices of the path
+     * @param vertices the array where to store the vertices
+     */
+    private static void decodeVertices(SegmentedMappedFile mappedFile, long position, int nVertices, int[] vertices) {
+
+        int vertex = 0;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            int value = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+
+                b = mappedFile.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+
+            } while (b < 0);
+
+            vertex = i == 0 ? value : vertex + ((value >>> 1) ^ -(value & 1));
+            vertices[i] = vertex;
+
+        }
+    }
+
+    /**
+     * Decodes the vertices of a path in compact encoding from the current
+     * position of a buffer, see the file mapped in memory variant.
+     *
+     * @param buffer the buffer, positioned on the first vertex
+     * @param nVertices the number of vertices of the path
+     * @param vertices the array where to store the vertices
+     */
+    private static void decodeVertices(ByteBuffer buffer, int nVertices, int[] vertices) {
+
+        int vertex = 0;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            int value = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+
+            } while (b < 0);
+
+            vertex = i == 0 ? value : vertex + ((value >>> 1) ^ -(value & 1));
+            vertices[i] = vertex;
+
+        }
+    }
+
+    /**
+     * Returns the number of bytes of the record stored at the given position.
+     *
+     * @param position the position of the path in the file
+     * @param mappedFile the file mapped in memory
+     * @param encoding the encoding of the records
+     *
+     * @return the number of bytes of the record
+     */
+    public static int getRecordSize(long position, SegmentedMappedFile mappedFile, RecordEncoding encoding) {
+
+        int nVertices = getNVertices(position, mappedFile, encoding);
+
+        if (encoding != RecordEncoding.COMPACT) {
+
+            return encoding.getMaxRecordSize(nVertices);
+
+        }
+
+        // Every varint ends with a byte without continuation bit
+        long end = position + encoding.getPrefixSize();
+
+        for (int i = 0; i < nVertices; i++) {
+
+            while (mappedFile.get(end) < 0) {
+
+                end++;
+
+            }
+
+            end++;
+
+        }
+
+        return (int) (end - position);
+
+    }
 }
@@ -0,0 +1,162 @@
+package no.uib.pap.pathfinder.io.path;
+
+/**
+ * The encodings of the path records in a file.
+ *
+ * @author Marc Vaudel
+ */
+public enum RecordEncoding {
+
+    /**
+     * The weight as double, the number of vertices as int, and the vertices
+     * as ints.
+     */
+    PLAIN(0),
+    /**
+     * The weight as float, the number of vertices as unsigned byte, the first
+     * vertex as varint, and the difference between every vertex and the
+     * previous one as zigzag varint. Paths are short and vertices of high
+     * degree have low indexes, records are then a fraction of the plain
+     * size.
+     */
+    COMPACT(1);
+
+    /**
+     * The maximal number of vertices of a path in compact encoding.
+     */
+    public static final int COMPACT_MAX_VERTICES = 255;
+    /**
+     * The maximal number of bytes of a varint.
+     */
+    public static final int MAX_VARINT_SIZE = 5;
+    /**
+     * The code of the encoding in the file header.
+     */
+    public final int code;
+
+    /**
+     * Constructor.
+     *
+     * @param code the code of the encoding in the file header
+     */
+    private RecordEncoding(int code) {
+
+        this.code = code;
+
+    }
+
+    /**
+     * Returns the encoding corresponding to the given code.
+     *
+     * @param code the code of the encoding in the file header
+     *
+     * @return the encoding corresponding to the given code
+     */
+    public static RecordEncoding getEncoding(int code) {
+
+        for (RecordEncoding encoding : values()) {
+
+            if (encoding.code == code) {
+                return encoding;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown record encoding: " + code + ".");
+
+    }
+
+    /**
+     * Returns the number of bytes used by the weight and number of vertices
+     * at the start of a record.
+     *
+     * @return the number of bytes used by the weight and number of vertices
+     */
+    public int getPrefixSize() {
+
+        return this == COMPACT ? 5 : 12;
+
+    }
+
+    /**
+     * Returns the maximal number of bytes of a record.
+     *
+     * @param nVertices the number of vertices of the path
+     *
+     * @return the maximal number of bytes of a record
+     */
+    public int getMaxRecordSize(int nVertices) {
+
+        return this == COMPACT ? 5 + MAX_VARINT_SIZE * nVertices : 12 + 4 * nVertices;
+
+    }
+
+    /**
+     * Returns the number of bytes of a record.
+     *
+     * @param vertices the vertices of the path
+     * @param nVertices the number of vertices of the path
+     *
+     * @return the number of bytes of the record
+     */
+    public int getRecordSize(int[] vertices, int nVertices) {
+
+        if (this != COMPACT) {
+            return 12 + 4 * nVertices;
+        }
+
+        int size = 5;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            size += getVarintSize(getDelta(vertices, i));
+
+        }
+
+        return size;
+
+    }
+
+    /**
+     * Returns the value encoded for the vertex at the given rank in compact
+     * encoding: the first vertex, or the zigzag encoded difference with the
+     * previous vertex.
+     *
+     * @param vertices the vertices of the path
+     * @param rank the rank of the vertex in the path
+     *
+     * @return the value encoded for the vertex
+     */
+    static int getDelta(int[] vertices, int rank) {
+
+        if (rank == 0) {
+            return vertices[0];
+        }
+
+        int delta = vertices[rank] - vertices[rank - 1];
+
+        return (delta << 1) ^ (delta >> 31);
+
+    }
+
+    /**
+     * Returns the number of bytes needed to encode the given value as varint.
+     *
+     * @param value the value, read as unsigned
+     *
+     * @return the number of bytes needed to encode the value
+     */
+    static int getVarintSize(int value) {
+
+        int size = 1;
+
+        while ((value & ~0x7F) != 0) {
+
+            value >>>= 7;
+            size++;
+
+        }
+
+        return size;
+
+    }
+}
@@ -1,40 +1,28 @@
 package no.uib.pap.pathfinder.io.path;
 
-import java.io.File;
-import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
-import java.util.Arrays;
-import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
 import no.uib.pap.pathfinder.model.graph.Path;
 
 /**
- * A memory mapped file where paths of fixed length can be stored.
+ * The shortest path tree of a seed, as a view on the arrays of a search.
+ * Every vertex keeps its predecessor on the shortest path from the seed,
+ * paths are reconstructed on demand by walking the predecessors back to the
+ * seed. The weight and length of the paths are used for the targets of the
+ * seed only, i.e. the vertices with an index lower than the number of
+ * targets.
  *
  * @author Marc Vaudel
  */
 public class SeedPathFile {
 
-    /**
-     * The file.
-     */
-    public final File file;
-    /**
-     * The random access file.
-     */
-    private final RandomAccessFile raf;
-    /**
-     * The channel to the output file.
-     */
-    private final FileChannel fc;
     /**
      * The number of vertices.
      */
     private final int nVertices;
     /**
-     * The number of bytes used by one path.
+     * The number of targets, paths are stored to the vertices with a lower
+     * index.
      */
-    private final int pathSize;
+    public final int nTargets;
     /**
      * The weights of the paths.
      */
@@ -43,108 +31,106 @@ public class SeedPathFile {
      * The lengths of the paths.
      */
     private final int[] lengths;
+    /**
+     * The predecessor of every vertex on the path from the seed, -1 for the
+     * seed and vertices not reached.
+     */
+    private final int[] predecessors;
     /**
      * The seed vertice.
      */
     public final int origin;
 
     /**
-     * Constructor.
+     * Constructor using the given arrays without copy. The arrays are indexed
+     * by vertex, a target without path has a length of -1.
      *
-     * @param pathFile the file containing the paths
-     * @param nVertices the number of vertices
-     * @param fixedLength the depth if fixed, -1 otherwise
      * @param origin the seed vertice
-     */
-    public SeedPathFile(File pathFile, int nVertices, int fixedLength, int origin) {
-
-        try {
-
-            file = pathFile;
+     * @param nTargets the number of targets, paths are stored to the vertices
+     * with a lower index
+     * @param weights the weights of the paths
+     * @param lengths the lengths of the paths
+     * @param predecessors the predecessor of every vertex on the path from
+     * the seed, -1 for the seed and vertices not reached
+     */
+    public SeedPathFile(int origin, int nTargets, double[] weights, int[] lengths, int[] predecessors) {
+
+        this.nVertices = predecessors.length;
+        this.nTargets = nTargets;
+        this.weights = weights;
+        this.lengths = lengths;
+        this.predecessors = predecessors;
+        this.origin = origin;
 
-            raf = new RandomAccessFile(pathFile, "rw");
-            fc = raf.getChannel();
-
-            this.nVertices = nVertices;
-            this.pathSize = (fixedLength - 2) * 4;
-
-            this.weights = new double[nVertices];
-            Arrays.fill(weights, Double.NaN);
-
-            this.lengths = new int[nVertices];
-            Arrays.fill(lengths, -1);
-
-            this.origin = origin;
-
-        } catch (Exception e) {
-
-            throw new RuntimeException(e);
-
-        }
     }
 
     /**
-     * Returns the index where to save the path.
+     * Returns the weight of a path.
      *
-     * @param index the index of the last vertex in the path
+     * @param endPath the end index of the path, must be a target.
      *
-     * @return the index where to save the path
+     * @return the weight of a path
      */
-    public long getIndex(int index) {
+    public double getWeight(int endPath) {
 
-        return index * pathSize;
+        return weights[endPath];
 
     }
 
     /**
-     * Returns the weight of a path.
+     * Returns the number of vertices in the path.
      *
-     * @param endPath the end index of the path.
+     * @param endPath the end index of the path, must be a target
      *
-     * @return the weight of a path
+     * @return the number of vertices in the path
      */
-    public double getWeight(int endPath) {
+    public int getLength(int endPath) {
 
-        return weights[endPath];
+        return lengths[endPath];
 
     }
 
     /**
-     * Returns the number of vertices in the path.
+     * Returns the vertex preceding the given vertex on the path from the seed.
      *
      * @param endPath the end index of the path
      *
-     * @return the number of vertices in the path
+     * @return the vertex preceding the given vertex on the path from the seed,
+     * -1 for the seed and vertices not reached
      */
-    public int getLength(int endPath) {
+    public int getPredecessor(int endPath) {
 
-        return lengths[endPath];
+        return predecessors[endPath];
 
     }
-    
+
     /**
      * Indicates whether the given path has already been stored.
-     * 
-     * @param endPath the end index of the path
-     * 
+     *
+     * @param endPath the end index of the path, must be a target
+     *
      * @return a boolean indicating whether the given path has already been stored
      */
     public boolean hasPath(int endPath) {
-        
+
         return lengths[endPath] != -1;
-        
+
     }
 
     /**
-     * Reads the path from the file.
+     * Reconstructs the path from the seed to the given vertex.
      *
-     * @param lastVertex the index of the last vertex in the path
+     * @param lastVertex the index of the last vertex in the path, must be a
+     * target
      *
-     * @return the path ending on the desired vertex
+     * @return the path ending on the desired vertex, null if not reached or if
+     * the last vertex is the seed
      */
     public Path getPath(int lastVertex) {
 
-        double weight = getWeight(lastVertex);
+        if (lastVertex == origin) {
+            return null;
+        }
 
         int length = getLength(lastVertex);
 
@@ -152,101 +138,29 @@ public class SeedPathFile {
             return null;
         }
 
-        if (length == 2) {
-
-            int[] pathIndexes = new int[]{origin, lastVertex};
-            return new Path(pathIndexes, weight);
-
-        }
-
-        try {
-
-            long index = getIndex(lastVertex);
-
-            MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, index, pathSize);
-
-            int[] pathIndexes = new int[length];
-
-            pathIndexes[0] = origin;
-            pathIndexes[length - 1] = lastVertex;
-
-            for (int i = 1; i < length - 1; i++) {
+        int[] pathIndexes = new int[length];
 
-                int vertice = buffer.getInt();
+        int vertex = lastVertex;
 
-                if (vertice < 0 || vertice > nVertices) {
-                    throw new IllegalArgumentException("Unexpected vertex index: " + vertice + ".");
-                }
+        for (int i = length - 1; i > 0; i--) {
 
-                pathIndexes[i] = vertice;
+            if (vertex < 0 || vertex >= nVertices) {
+                throw new IllegalArgumentException("Unexpected vertex index: " + vertex + ".");
             }
 
-            closeBuffer(buffer);
-
-            return new Path(pathIndexes, weight);
-
-        } catch (Exception e) {
-
-            throw new RuntimeException(e);
+            pathIndexes[i] = vertex;
+            vertex = predecessors[vertex];
 
         }
 
-    }
-
-    /**
-     * Saves the path to the file.
-     *
-     * @param path the path to save
-     */
-    public void setPath(Path path) {
-
-        int lastVertex = path.getEnd();
-
-        weights[lastVertex] = path.getWeight();
-
-        int length = path.length();
-
-        lengths[lastVertex] = length;
-
-        if (length > 2) {
-
-            try {
-
-                long index = getIndex(lastVertex);
-
-                MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_WRITE, index, pathSize);
-
-                int[] pathIndexes = path.getPath();
-
-                for (int i = 1; i < length - 1; i++) {
-
-                    buffer.putInt(pathIndexes[i]);
-
-                }
-
-                closeBuffer(buffer);
-
-            } catch (Exception e) {
-
-                throw new RuntimeException(e);
-
-            }
+        if (vertex != origin) {
+            throw new IllegalArgumentException("Path to " + lastVertex + " does not lead back to seed " + origin + ".");
         }
-    }
 
-    /**
-     * Closes the connection to the file.
-     */
-    public void close() {
+        pathIndexes[0] = origin;
 
-        try {
+        return new Path(pathIndexes, getWeight(lastVertex));
 
-            fc.close();
-            raf.close();
-
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
     }
 
 }
@@ -0,0 +1,193 @@
+package no.uib.pap.pathfinder.io.path;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import no.uib.pap.pathfinder.io.util.SegmentedMappedFile;
+
+/**
+ * A memory mapped file where the shortest path tree of every origin is
+ * stored. Instead of the vertices of every path, the file stores for every
+ * origin the weight of the path to every vertex followed by the predecessor
+ * of every vertex on its path from the origin. Paths are reconstructed by
+ * walking the predecessors, see TreeProvider.
+ *
+ * The header contains a magic number, the version of the format, the code of
+ * the matrix layout, the number of vertices, the number of bytes used by a
+ * weight, and whether the graph is undirected. In undirected graphs the path
+ * between two vertices is stored in the tree of the vertex of higher index,
+ * otherwise in the tree of the first vertex. Weights of vertices not
+ * targeted by the origin are NaN, and their predecessors are not reliable.
+ *
+ * @author Marc Vaudel
+ */
+public class TreeFile {
+
+    /**
+     * Magic number identifying tree files.
+     */
+    public static final int MAGIC = 0x7EEF11E0;
+    /**
+     * The version of the format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * The size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 4;
+    /**
+     * The random access file.
+     */
+    private final RandomAccessFile raf;
+    /**
+     * The channel to the file.
+     */
+    private final FileChannel fc;
+    /**
+     * The file mapped in memory.
+     */
+    private final SegmentedMappedFile mappedFile;
+    /**
+     * The number of vertices.
+     */
+    public final int nVertices;
+    /**
+     * Boolean indicating whether weights are stored in single precision.
+     */
+    public final boolean singlePrecision;
+
+    /**
+     * Constructor.
+     *
+     * @param treeFile the file where to store the trees
+     * @param nVertices the number of vertices
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     * @param layout the layout of the matrix
+     * @param undirected boolean indicating whether the graph is undirected
+     * @param resume boolean indicating whether the trees already in the file
+     * should be kept, if false the file is overwritten
+     */
+    public TreeFile(File treeFile, int nVertices, boolean singlePrecision, MatrixLayout layout, boolean undirected, boolean resume) {
+
+        try {
+
+            this.nVertices = nVertices;
+            this.singlePrecision = singlePrecision;
+
+            int weightSize = singlePrecision ? 4 : 8;
+            long size = getPosition(nVertices, nVertices, weightSize);
+
+            raf = new RandomAccessFile(treeFile, "rw");
+            fc = raf.getChannel();
+
+            if (!resume) {
+
+                raf.setLength(0);
+
+            }
+
+            mappedFile = new SegmentedMappedFile(fc, size, FileChannel.MapMode.READ_WRITE);
+
+            mappedFile.putInt(0, MAGIC);
+            mappedFile.putInt(4, VERSION);
+            mappedFile.putInt(8, layout.code);
+            mappedFile.putInt(12, nVertices);
+            mappedFile.putInt(16, weightSize);
+            mappedFile.putInt(20, undirected ? 1 : 0);
+
+        } catch (Exception e) {
+
+            throw new RuntimeException(e);
+
+        }
+    }
+
+    /**
+     * Returns the position of the tree of an origin in the file. The
+     * predecessors follow the weights.
+     *
+     * @param origin the index of the origin
+     * @param nVertices the number of vertices
+     * @param weightSize the number of bytes used by a weight
+     *
+     * @return the position of the tree in the file
+     */
+    public static long getPosition(int origin, int nVertices, int weightSize) {
+
+        return HEADER_SIZE + ((long) origin) * nVertices * (weightSize + 4);
+
+    }
+
+    /**
+     * Writes the shortest path tree of a finished seed.
+     *
+     * @param seed the seed
+     */
+    public void setTree(SeedPathFile seed) {
+
+        int weightSize = singlePrecision ? 4 : 8;
+        long weightsPosition = getPosition(seed.origin, nVertices, weightSize);
+        long predecessorsPosition = weightsPosition + ((long) weightSize) * nVertices;
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            double weight;
+
+            if (vertex == seed.origin) {
+
+                weight = 0.0;
+
+            } else if (vertex < seed.nTargets) {
+
+                weight = seed.hasPath(vertex) ? seed.getWeight(vertex) : Double.POSITIVE_INFINITY;
+
+            } else {
+
+                weight = Double.NaN;
+
+            }
+
+            if (singlePrecision) {
+
+                mappedFile.putFloat(weightsPosition + 4l * vertex, (float) weight);
+
+            } else {
+
+                mappedFile.putDouble(weightsPosition + 8l * vertex, weight);
+
+            }
+
+            int predecessor = vertex == seed.origin ? -1 : seed.getPredecessor(vertex);
+
+            mappedFile.putInt(predecessorsPosition + 4l * vertex, predecessor);
+
+        }
+    }
+
+    /**
+     * Writes the changes to the storage device.
+     */
+    public void force() {
+
+        mappedFile.force();
+
+    }
+
+    /**
+     * Closes the connection to the file.
+     */
+    public void close() {
+
+        try {
+
+            mappedFile.force();
+            mappedFile.close();
+            fc.close();
+            raf.close();
+
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
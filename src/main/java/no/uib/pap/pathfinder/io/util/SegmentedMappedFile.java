@@ -0,0 +1,235 @@
+package no.uib.pap.pathfinder.io.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import static no.uib.pap.pathfinder.io.util.MemoryMappedFileUtils.closeBuffer;
+
+/**
+ * Mapping of a whole file, split in segments to allow files larger than 2 GB.
+ * Consecutive segments overlap by eight bytes so that a primitive value never
+ * spans two segments.
+ *
+ * Values are accessed with absolute get and put methods, which do not modify
+ * the state of the buffers, it is therefore safe to read from multiple
+ * threads, and to write from multiple threads to distinct positions.
+ *
+ * @author Marc Vaudel
+ */
+public class SegmentedMappedFile {
+
+    /**
+     * The number of bits used to address a position in a segment.
+     */
+    public static final int SEGMENT_BITS = 30;
+    /**
+     * The size of a segment.
+     */
+    public static final long SEGMENT_SIZE = 1l << SEGMENT_BITS;
+    /**
+     * The mask to get the position in a segment.
+     */
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    /**
+     * The number of bytes that consecutive segments share.
+     */
+    private static final int OVERLAP = 8;
+    /**
+     * The mapped segments.
+     */
+    private final MappedByteBuffer[] segments;
+    /**
+     * The size of the mapped region.
+     */
+    public final long size;
+
+    /**
+     * Constructor mapping the whole file in read only mode.
+     *
+     * @param fc the channel to the file
+     *
+     * @throws IOException exception thrown if an error occurred while mapping
+     * the file
+     */
+    public SegmentedMappedFile(FileChannel fc) throws IOException {
+
+        this(fc, fc.size(), FileChannel.MapMode.READ_ONLY);
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param fc the channel to the file
+     * @param size the number of bytes to map from the start of the file
+     * @param mode the mapping mode
+     *
+     * @throws IOException exception thrown if an error occurred while mapping
+     * the file
+     */
+    public SegmentedMappedFile(FileChannel fc, long size, FileChannel.MapMode mode) throws IOException {
+
+        this.size = size;
+
+        int nSegments = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[Math.max(nSegments, 1)];
+
+        for (int i = 0; i < segments.length; i++) {
+
+            long start = ((long) i) << SEGMENT_BITS;
+            long length = Math.min(size - start, SEGMENT_SIZE + OVERLAP);
+
+            segments[i] = fc.map(mode, start, Math.max(length, 0));
+
+        }
+    }
+
+    /**
+     * Returns the byte at the given position.
+     *
+     * @param position the position in the file
+     *
+     * @return the byte at the given position
+     */
+    public byte get(long position) {
+
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+
+    }
+
+    /**
+     * Returns the int at the given position.
+     *
+     * @param position the position in the file
+     *
+     * @return the int at the given position
+     */
+    public int getInt(long position) {
+
+        return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+
+    }
+
+    /**
+     * Returns the long at the given position.
+     *
+     * @param position the position in the file
+     *
+     * @return the long at the given position
+     */
+    public long getLong(long position) {
+
+        return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT_MASK));
+
+    }
+
+    /**
+     * Returns the float at the given position.
+     *
+     * @param position the position in the file
+     *
+     * @return the float at the given position
+     */
+    public float getFloat(long position) {
+
+        return segments[(int) (position >>> SEGMENT_BITS)].getFloat((int) (position & SEGMENT_MASK));
+
+    }
+
+    /**
+     * Returns the double at the given position.
+     *
+     * @param position the position in the file
+     *
+     * @return the double at the given position
+     */
+    public double getDouble(long position) {
+
+        return segments[(int) (position >>> SEGMENT_BITS)].getDouble((int) (position & SEGMENT_MASK));
+
+    }
+
+    /**
+     * Sets the byte at the given position.
+     *
+     * @param position the position in the file
+     * @param value the value to set
+     */
+    public void put(long position, byte value) {
+
+        segments[(int) (position >>> SEGMENT_BITS)].put((int) (position & SEGMENT_MASK), value);
+
+    }
+
+    /**
+     * Sets the int at the given position.
+     *
+     * @param position the position in the file
+     * @param value the value to set
+     */
+    public void putInt(long position, int value) {
+
+        segments[(int) (position >>> SEGMENT_BITS)].putInt((int) (position & SEGMENT_MASK), value);
+
+    }
+
+    /**
+     * Sets the long at the given position.
+     *
+     * @param position the position in the file
+     * @param value the value to set
+     */
+    public void putLong(long position, long value) {
+
+        segments[(int) (position >>> SEGMENT_BITS)].putLong((int) (position & SEGMENT_MASK), value);
+
+    }
+
+    /**
+     * Sets the float at the given position.
+     *
+     * @param position the position in the file
+     * @param value the value to set
+     */
+    public void putFloat(long position, float value) {
+
+        segments[(int) (position >>> SEGMENT_BITS)].putFloat((int) (position & SEGMENT_MASK), value);
+
+    }
+
+    /**
+     * Sets the double at the given position.
+     *
+     * @param position the position in the file
+     * @param value the value to set
+     */
+    public void putDouble(long position, double value) {
+
+        segments[(int) (position >>> SEGMENT_BITS)].putDouble((int) (position & SEGMENT_MASK), value);
+
+    }
+
+    /**
+     * Writes the changes to the storage device.
+     */
+    public void force() {
+
+        for (MappedByteBuffer segment : segments) {
+
+            segment.force();
+
+        }
+    }
+
+    /**
+     * Unmaps the file. The mapping must not be used afterwards.
+     */
+    public void close() {
+
+        for (MappedByteBuffer segment : segments) {
+
+            closeBuffer(segment);
+
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package no.uib.pap.pathfinder.model.graph;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import no.uib.pap.pathfinder.util.SortUtils;
+
+/**
+ * Compact representation of a graph in compressed sparse row format. The
+ * edges of vertex i are stored in the neighbor and weight arrays between
+ * offsets[i] included and offsets[i + 1] excluded.
+ *
+ * @author Marc Vaudel
+ */
+public class CsrGraph {
+
+    /**
+     * The names of the vertices.
+     */
+    public final String[] names;
+    /**
+     * The offsets of the edges of every vertex, the last element is the
+     * number of edges.
+     */
+    public final int[] offsets;
+    /**
+     * The indexes of the neighbors of all vertices.
+     */
+    public final int[] neighbors;
+    /**
+     * The weights of the edges in double precision, null if stored in single
+     * precision.
+     */
+    public final double[] weights;
+    /**
+     * The weights of the edges in single precision, null if stored in double
+     * precision.
+     */
+    public final float[] floatWeights;
+
+    /**
+     * Constructor for double precision weights.
+     *
+     * @param names the names of the vertices
+     * @param offsets the offsets of the edges of every vertex
+     * @param neighbors the indexes of the neighbors of all vertices
+     * @param weights the weights of the edges
+     */
+    public CsrGraph(String[] names, int[] offsets, int[] neighbors, double[] weights) {
+
+        this.names = names;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weights = weights;
+        this.floatWeights = null;
+
+    }
+
+    /**
+     * Constructor for single precision weights.
+     *
+     * @param names the names of the vertices
+     * @param offsets the offsets of the edges of every vertex
+     * @param neighbors the indexes of the neighbors of all vertices
+     * @param floatWeights the weights of the edges
+     */
+    public CsrGraph(String[] names, int[] offsets, int[] neighbors, float[] floatWeights) {
+
+        this.names = names;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.weights = null;
+        this.floatWeights = floatWeights;
+
+    }
+
+    /**
+     * Builds a compact graph from a graph.
+     *
+     * @param graph the graph
+     * @param singlePrecision boolean indicating whether weights should be
+     * stored in single precision
+     *
+     * @return the compact graph
+     */
+    public static CsrGraph fromGraph(Graph graph, boolean singlePrecision) {
+
+        Vertex[] vertices = graph.vertices;
+        int nVertices = vertices.length;
+
+        String[] names = new String[nVertices];
+        int[] offsets = new int[nVertices + 1];
+
+        for (int i = 0; i < nVertices; i++) {
+
+            names[i] = vertices[i].name;
+            offsets[i + 1] = offsets[i] + vertices[i].neighbors.length;
+
+        }
+
+        int nEdges = offsets[nVertices];
+        int[] neighbors = new int[nEdges];
+        double[] weights = singlePrecision ? null : new double[nEdges];
+        float[] floatWeights = singlePrecision ? new float[nEdges] : null;
+
+        for (int i = 0; i < nVertices; i++) {
+
+            Vertex vertex = vertices[i];
+            int offset = offsets[i];
+
+            System.arraycopy(vertex.neighbors, 0, neighbors, offset, vertex.neighbors.length);
+
+            for (int j = 0; j < vertex.weights.length; j++) {
+
+                if (singlePrecision) {
+
+                    floatWeights[offset + j] = (float) vertex.weights[j];
+
+                } else {
+
+                    weights[offset + j] = vertex.weights[j];
+
+                }
+            }
+        }
+
+        return singlePrecision
+                ? new CsrGraph(names, offsets, neighbors, floatWeights)
+                : new CsrGraph(names, offsets, neighbors, weights);
+
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices
+     */
+    public int getNVertices() {
+
+        return offsets.length - 1;
+
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges
+     */
+    public int getNEdges() {
+
+        return offsets[offsets.length - 1];
+
+    }
+
+    /**
+     * Returns the number of neighbors of the given vertex.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return the number of neighbors of the given vertex
+     */
+    public int getDegree(int vertex) {
+
+        return offsets[vertex + 1] - offsets[vertex];
+
+    }
+
+    /**
+     * Returns the weight of the given edge.
+     *
+     * @param edge the index of the edge
+     *
+     * @return the weight of the given edge
+     */
+    public double getWeight(int edge) {
+
+        return weights != null ? weights[edge] : floatWeights[edge];
+
+    }
+
+    /**
+     * Indicates whether every edge has a reverse edge with the same weight,
+     * i.e. whether the graph can be treated as undirected.
+     *
+     * @return a boolean indicating whether the graph is symmetric
+     */
+    public boolean isSymmetric() {
+
+        int nVertices = getNVertices();
+        int nEdges = getNEdges();
+
+        long[] sortedEdges = new long[nEdges];
+        int[] edgeIndexes = new int[nEdges];
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+
+                sortedEdges[edge] = (((long) vertex) << 32) | neighbors[edge];
+                edgeIndexes[edge] = edge;
+
+            }
+        }
+
+        SortUtils.sort(sortedEdges, edgeIndexes);
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            for (int edge = offsets[vertex]; edge < offsets[vertex + 1]; edge++) {
+
+                long reverse = (((long) neighbors[edge]) << 32) | vertex;
+
+                int reverseIndex = Arrays.binarySearch(sortedEdges, reverse);
+
+                if (reverseIndex < 0 || getWeight(edgeIndexes[reverseIndex]) != getWeight(edge)) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Returns a fingerprint of the graph, computed from the number of edges
+     * and a CRC32 checksum of the names, edges and weights. Two graphs with
+     * the same fingerprint can be considered identical.
+     *
+     * @return a fingerprint of the graph
+     */
+    public long getFingerprint() {
+
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        for (String name : names) {
+
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+            if (buffer.remaining() < bytes.length + 1) {
+
+                update(crc, buffer);
+
+            }
+
+            if (bytes.length + 1 > buffer.capacity()) {
+
+                crc.update(bytes);
+
+            } else {
+
+                buffer.put(bytes);
+
+            }
+
+            buffer.put((byte) 0);
+
+        }
+
+        for (int[] array : new int[][]{offsets, neighbors}) {
+
+            for (int value : array) {
+
+                if (buffer.remaining() < 4) {
+
+                    update(crc, buffer);
+
+                }
+
+                buffer.putInt(value);
+
+            }
+        }
+
+        for (int edge = 0; edge < getNEdges(); edge++) {
+
+            if (buffer.remaining() < 8) {
+
+                update(crc, buffer);
+
+            }
+
+            buffer.putDouble(getWeight(edge));
+
+        }
+
+        update(crc, buffer);
+
+        return (((long) getNEdges()) << 32) | crc.getValue();
+
+    }
+
+    /**
+     * Updates the checksum with the content of the buffer and clears the
+     * buffer.
+     *
+     * @param crc the checksum
+     * @param buffer the buffer
+     */
+    private static void update(CRC32 crc, ByteBuffer buffer) {
+
+        ((Buffer) buffer).flip();
+        crc.update(buffer);
+        ((Buffer) buffer).clear();
+
+    }
+
+    /**
+     * Returns this graph as an array of vertices.
+     *
+     * @return this graph as an array of vertices
+     */
+    public Graph toGraph() {
+
+        int nVertices = getNVertices();
+        Vertex[] vertices = new Vertex[nVertices];
+
+        for (int i = 0; i < nVertices; i++) {
+
+            int start = offsets[i];
+            int degree = getDegree(i);
+
+            int[] vertexNeighbors = new int[degree];
+            System.arraycopy(neighbors, start, vertexNeighbors, 0, degree);
+
+            double[] vertexWeights = new double[degree];
+
+            for (int j = 0; j < degree; j++) {
+
+                vertexWeights[j] = getWeight(start + j);
+
+            }
+
+            vertices[i] = new Vertex(names[i], vertexNeighbors, vertexWeights);
+
+        }
+
+        return new Graph(vertices);
+
+    }
+}
@@ -1,8 +1,5 @@
 package no.uib.pap.pathfinder.model.graph;
 
-import java.util.Arrays;
-import java.util.stream.IntStream;
-
 /**
  * Simple model for a path.
  *
@@ -85,7 +82,8 @@ public class Path {
 
     /**
      * Returns a boolean indicating whether the given index corresponds to a
-     * vertex in the path.
+     * vertex in the path. Paths are short, a linear scan of the array without
+     * allocation is faster than any index.
      *
      * @param i the index of the vertex
      *
@@ -93,23 +91,56 @@ public class Path {
      * vertex in the path
      */
     public boolean contains(int i) {
-        
-        return Arrays.stream(path)
-                .anyMatch(index -> index == i);
-        
+
+        for (int index : path) {
+
+            if (index == i) {
+                return true;
+            }
+        }
+
+        return false;
+
     }
-    
+
     /**
-     * Returns this path with the vertices in reverse order.
-     * 
-     * @return this path with the vertices in reverse order
+     * Returns a copy of this path with the vertices in reverse order. See
+     * reverseInPlace to reverse the path without allocation.
+     *
+     * @return a copy of this path with the vertices in reverse order
      */
     public Path reverse() {
-        
-            int[] reversedPath = IntStream.range(0, path.length)
-                    .map(i -> path[path.length - i - 1])
-                    .toArray();
-            return new Path(reversedPath, weight);
+
+        int[] reversedPath = new int[path.length];
+
+        for (int i = 0; i < path.length; i++) {
+
+            reversedPath[i] = path[path.length - i - 1];
+
+        }
+
+        return new Path(reversedPath, weight);
+
+    }
+
+    /**
+     * Reverses the order of the vertices of this path without allocation.
+     * The array given at construction, as returned by getPath, is modified.
+     *
+     * @return this path
+     */
+    public Path reverseInPlace() {
+
+        for (int i = 0, j = path.length - 1; i < j; i++, j--) {
+
+            int vertex = path[i];
+            path[i] = path[j];
+            path[j] = vertex;
+
+        }
+
+        return this;
+
     }
 
 }
@@ -0,0 +1,239 @@
+package no.uib.pap.pathfinder.util;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of vertices backed by primitive arrays. Vertices are
+ * ordered by weight, then by number of vertices in the path, i.e. the same
+ * tie-break as used when comparing paths.
+ *
+ * @author Marc Vaudel
+ */
+public class IndexedHeap {
+
+    /**
+     * The vertices in heap order.
+     */
+    private final int[] heap;
+    /**
+     * The position of every vertex in the heap, -1 if not in the heap.
+     */
+    private final int[] positions;
+    /**
+     * The weight of every vertex.
+     */
+    private final double[] weights;
+    /**
+     * The length of every vertex.
+     */
+    private final int[] lengths;
+    /**
+     * The number of vertices in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param nVertices the number of vertices that can be stored in the heap
+     */
+    public IndexedHeap(int nVertices) {
+
+        heap = new int[nVertices];
+        positions = new int[nVertices];
+        Arrays.fill(positions, -1);
+        weights = new double[nVertices];
+        lengths = new int[nVertices];
+
+    }
+
+    /**
+     * Indicates whether the heap is empty.
+     *
+     * @return a boolean indicating whether the heap is empty
+     */
+    public boolean isEmpty() {
+
+        return size == 0;
+
+    }
+
+    /**
+     * Returns the number of vertices in the heap.
+     *
+     * @return the number of vertices in the heap
+     */
+    public int size() {
+
+        return size;
+
+    }
+
+    /**
+     * Indicates whether the given vertex is in the heap.
+     *
+     * @param vertex the index of the vertex
+     *
+     * @return a boolean indicating whether the given vertex is in the heap
+     */
+    public boolean contains(int vertex) {
+
+        return positions[vertex] != -1;
+
+    }
+
+    /**
+     * Removes all vertices from the heap.
+     */
+    public void clear() {
+
+        for (int i = 0; i < size; i++) {
+
+            positions[heap[i]] = -1;
+
+        }
+
+        size = 0;
+
+    }
+
+    /**
+     * Inserts a vertex in the heap or moves it up if it is already in the
+     * heap. The weight and length must not be worse than the ones already in
+     * the heap for this vertex.
+     *
+     * @param vertex the index of the vertex
+     * @param weight the weight of the path to the vertex
+     * @param length the number of vertices in the path to the vertex
+     */
+    public void offer(int vertex, double weight, int length) {
+
+        weights[vertex] = weight;
+        lengths[vertex] = length;
+
+        int position = positions[vertex];
+
+        if (position == -1) {
+
+            position = size++;
+            heap[position] = vertex;
+            positions[vertex] = position;
+
+        }
+
+        siftUp(position);
+
+    }
+
+    /**
+     * Removes the vertex with the lowest weight and length from the heap and
+     * returns it.
+     *
+     * @return the vertex with the lowest weight and length
+     */
+    public int poll() {
+
+        int result = heap[0];
+        positions[result] = -1;
+
+        size--;
+
+        if (size > 0) {
+
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+
+        }
+
+        return result;
+
+    }
+
+    /**
+     * Indicates whether vertex i comes before vertex j in the heap.
+     *
+     * @param i the index of the first vertex
+     * @param j the index of the second vertex
+     *
+     * @return a boolean indicating whether vertex i comes before vertex j in
+     * the heap
+     */
+    private boolean before(int i, int j) {
+
+        double weightI = weights[i];
+        double weightJ = weights[j];
+
+        return weightI < weightJ
+                || weightI == weightJ && lengths[i] < lengths[j];
+
+    }
+
+    /**
+     * Moves the vertex at the given position up the heap.
+     *
+     * @param position the position in the heap
+     */
+    private void siftUp(int position) {
+
+        int vertex = heap[position];
+
+        while (position > 0) {
+
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+
+            if (!before(vertex, parent)) {
+                break;
+            }
+
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+
+        }
+
+        heap[position] = vertex;
+        positions[vertex] = position;
+
+    }
+
+    /**
+     * Moves the vertex at the given position down the heap.
+     *
+     * @param position the position in the heap
+     */
+    private void siftDown(int position) {
+
+        int vertex = heap[position];
+        int half = size >>> 1;
+
+        while (position < half) {
+
+            int childPosition = 2 * position + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+
+            if (rightPosition < size && before(heap[rightPosition], child)) {
+
+                childPosition = rightPosition;
+                child = heap[childPosition];
+
+            }
+
+            if (!before(child, vertex)) {
+                break;
+            }
+
+            heap[position] = child;
+            positions[child] = position;
+            position = childPosition;
+
+        }
+
+        heap[position] = vertex;
+        positions[vertex] = position;
+
+    }
+}
@@ -0,0 +1,139 @@
+package no.uib.pap.pathfinder.util;
+
+/**
+ * Sorting functions on primitive arrays.
+ *
+ * @author Marc Vaudel
+ */
+public class SortUtils {
+
+    /**
+     * Below this size arrays are sorted using insertion sort.
+     */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    /**
+     * Sorts the keys in ascending order and applies the same permutation to
+     * the values.
+     *
+     * @param keys the keys to sort by
+     * @param values the values to permute with the keys
+     */
+    public static void sort(long[] keys, int[] values) {
+
+        sort(keys, values, 0, keys.length - 1);
+
+    }
+
+    /**
+     * Sorts the keys between the given indexes, both included, in ascending
+     * order and applies the same permutation to the values.
+     *
+     * @param keys the keys to sort by
+     * @param values the values to permute with the keys
+     * @param low the first index to sort
+     * @param high the last index to sort
+     */
+    private static void sort(long[] keys, int[] values, int low, int high) {
+
+        while (high - low >= INSERTION_THRESHOLD) {
+
+            long pivot = medianOfThree(keys[low], keys[(low + high) >>> 1], keys[high]);
+
+            int i = low;
+            int j = high;
+
+            while (i <= j) {
+
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+
+                if (i <= j) {
+
+                    swap(keys, values, i, j);
+                    i++;
+                    j--;
+
+                }
+            }
+
+            // Recurse on the smaller part to bound the stack depth
+            if (j - low < high - i) {
+
+                sort(keys, values, low, j);
+                low = i;
+
+            } else {
+
+                sort(keys, values, i, high);
+                high = j;
+
+            }
+        }
+
+        for (int i = low + 1; i <= high; i++) {
+
+            long key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+
+            while (j >= low && keys[j] > key) {
+
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+
+            }
+
+            keys[j + 1] = key;
+            values[j + 1] = value;
+
+        }
+    }
+
+    /**
+     * Returns the median of three values.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @param c the third value
+     *
+     * @return the median of the three values
+     */
+    private static long medianOfThree(long a, long b, long c) {
+
+        if (a < b) {
+
+            return b < c ? b : a < c ? c : a;
+
+        } else {
+
+            return a < c ? a : b < c ? c : b;
+
+        }
+    }
+
+    /**
+     * Swaps two elements in the keys and values.
+     *
+     * @param keys the keys
+     * @param values the values
+     * @param i the index of the first element
+     * @param j the index of the second element
+     */
+    private static void swap(long[] keys, int[] values, int i, int j) {
+
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+
+    }
+}
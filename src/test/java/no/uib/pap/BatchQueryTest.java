@@ -0,0 +1,117 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that the batch queries of the path provider return the
+ * same results as single queries.
+ *
+ * @author Marc Vaudel
+ */
+public class BatchQueryTest extends TestCase {
+
+    public synchronized void testBatchQueries() throws IOException {
+
+        Graph testGraph = NetworkPool.getTestGraph();
+        int nVertices = testGraph.vertices.length;
+
+        File testFile = new File("src/test/resources/testBatchPath");
+        ShortestPath shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.computeMatrix(2);
+
+        int[] from = new int[nVertices * nVertices];
+        int[] to = new int[nVertices * nVertices];
+
+        for (int i = 0; i < nVertices; i++) {
+
+            for (int j = 0; j < nVertices; j++) {
+
+                from[i * nVertices + j] = i;
+                to[i * nVertices + j] = j;
+
+            }
+        }
+
+        int[] vertices = {4, 0, 2, 1, 3};
+
+        try (PathProvider pathProvider = new PathProvider(testFile)) {
+
+            double[] weights = pathProvider.getWeights(from, to);
+            double[] matrix = pathProvider.getWeightMatrix(vertices);
+
+            for (int query = 0; query < from.length; query++) {
+
+                Path path = pathProvider.getPath(from[query], to[query]);
+                double expected = path == null ? 0.0 : path.getWeight();
+
+                Assert.assertEquals(expected, weights[query], 0.0);
+
+            }
+
+            for (int i = 0; i < vertices.length; i++) {
+
+                for (int j = 0; j < vertices.length; j++) {
+
+                    Path path = pathProvider.getPath(vertices[i], vertices[j]);
+                    double expected = path == null ? 0.0 : path.getWeight();
+
+                    Assert.assertEquals(expected, matrix[i * vertices.length + j], 0.0);
+
+                }
+            }
+
+            boolean[] visited = new boolean[from.length];
+
+            pathProvider.visitPaths(from, to, (query, weight, pathVertices, pathLength) -> {
+
+                try {
+
+                    Path path = pathProvider.getPath(from[query], to[query]);
+
+                    Assert.assertEquals(path.getWeight(), weight, 0.0);
+                    Assert.assertEquals(path.length(), pathLength);
+
+                    for (int i = 0; i < pathLength; i++) {
+
+                        Assert.assertEquals(path.getPath()[i], pathVertices[i]);
+
+                    }
+
+                    visited[query] = true;
+
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            for (int query = 0; query < from.length; query++) {
+
+                Assert.assertEquals(from[query] != to[query], visited[query]);
+
+            }
+
+            // The matrix of too many vertices does not fit in an array
+            try {
+
+                pathProvider.getWeightMatrix(new int[46341]);
+                Assert.fail("No exception thrown for a matrix larger than an array.");
+
+            } catch (IllegalArgumentException e) {
+            }
+        }
+
+        if (!testFile.delete()) {
+
+            testFile.deleteOnExit();
+
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that a computation can be run again after being
+ * cancelled.
+ *
+ * @author Marc Vaudel
+ */
+public class CancelTest extends TestCase {
+
+    public synchronized void testReuseAfterCancel() throws IOException {
+
+        CsrGraph testGraph = CsrGraph.fromGraph(NetworkPool.getTestGraph(), false);
+        int nVertices = testGraph.getNVertices();
+
+        File referenceFile = new File("src/test/resources/testCancelReference");
+        File testFile = new File("src/test/resources/testCancel");
+
+        ShortestPath shortestPath = new ShortestPath(testGraph, referenceFile);
+        shortestPath.computeMatrix(2);
+
+        shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.computeMatrix(2);
+        shortestPath.cancel();
+
+        Assert.assertTrue(shortestPath.isCancelled());
+
+        // The same instance computes every seed again
+        shortestPath.computeMatrix(2);
+
+        Assert.assertFalse(shortestPath.isCancelled());
+
+        long[] runtimes = shortestPath.getSeedRuntimes();
+
+        try (PathProvider referenceProvider = new PathProvider(referenceFile);
+                PathProvider pathProvider = new PathProvider(testFile)) {
+
+            for (int j = 0; j < nVertices; j++) {
+
+                // In undirected graphs the first vertex has no seed to compute
+                Assert.assertTrue(j == 0 || runtimes[j] > 0);
+
+                for (int i = 0; i < j; i++) {
+
+                    Path expected = referenceProvider.getPath(i, j);
+                    Path path = pathProvider.getPath(i, j);
+
+                    Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                    Assert.assertEquals(expected.length(), path.length());
+
+                }
+            }
+        }
+
+        for (File file : new File[]{referenceFile, testFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.CheckpointFile;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.io.path.PathFile;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that an interrupted computation resumes from the seeds not
+ * finished.
+ *
+ * @author Marc Vaudel
+ */
+public class CheckpointTest extends TestCase {
+
+    public synchronized void testSettings() {
+
+        File checkpointFile = new File("src/test/resources/testCheckpointSettings");
+        long fingerprint = 42l;
+        int nVertices = 5;
+
+        CheckpointFile checkpoint = new CheckpointFile(checkpointFile, fingerprint, MatrixLayout.TRIANGULAR, nVertices, 0, 8);
+        checkpoint.setFinished(new int[]{3, 1}, 2);
+        checkpoint.close();
+
+        // Same settings, the finished seeds are kept
+        checkpoint = new CheckpointFile(checkpointFile, fingerprint, MatrixLayout.TRIANGULAR, nVertices, 0, 8);
+        Assert.assertTrue(checkpoint.resumed);
+        Assert.assertEquals(2, checkpoint.getNFinished());
+        Assert.assertTrue(checkpoint.isFinished(1));
+        Assert.assertTrue(checkpoint.isFinished(3));
+        checkpoint.close();
+
+        // Trees in another precision, the checkpoint is reset
+        checkpoint = new CheckpointFile(checkpointFile, fingerprint, MatrixLayout.TRIANGULAR, nVertices, 0, 4);
+        Assert.assertFalse(checkpoint.resumed);
+        Assert.assertEquals(0, checkpoint.getNFinished());
+        checkpoint.close();
+
+        if (!checkpointFile.delete()) {
+
+            checkpointFile.deleteOnExit();
+
+        }
+    }
+
+    public synchronized void testResume() throws IOException {
+
+        CsrGraph testGraph = CsrGraph.fromGraph(NetworkPool.getTestGraph(), false);
+        int nVertices = testGraph.getNVertices();
+        int nFinished = 3;
+
+        Assert.assertTrue(testGraph.isSymmetric());
+
+        File referenceFile = new File("src/test/resources/testCheckpointReference");
+        File testFile = new File("src/test/resources/testCheckpointPath");
+        File checkpointFile = new File("src/test/resources/testCheckpoint");
+
+        // Complete run, the checkpoint is removed at the end
+        ShortestPath shortestPath = new ShortestPath(testGraph, referenceFile);
+        shortestPath.setCheckpointFile(checkpointFile);
+        shortestPath.computeMatrix(2);
+
+        Assert.assertFalse(checkpointFile.exists());
+
+        // Interrupted run where the first seeds are finished
+        Files.copy(referenceFile.toPath(), testFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        CheckpointFile checkpoint = new CheckpointFile(checkpointFile, testGraph.getFingerprint(), MatrixLayout.TRIANGULAR, nVertices, 0, 0);
+
+        for (int origin = 0; origin < nFinished; origin++) {
+
+            checkpoint.setFinished(origin);
+
+        }
+
+        checkpoint.close();
+
+        long interruptedLength = testFile.length();
+
+        shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.setCheckpointFile(checkpointFile);
+        shortestPath.computeMatrix(2);
+
+        Assert.assertFalse(checkpointFile.exists());
+
+        try (PathProvider referenceProvider = new PathProvider(referenceFile);
+                PathProvider pathProvider = new PathProvider(testFile)) {
+
+            long expectedLength = interruptedLength;
+
+            for (int j = 0; j < nVertices; j++) {
+
+                for (int i = 0; i < nVertices; i++) {
+
+                    Path expected = referenceProvider.getPath(i, j);
+                    Path path = pathProvider.getPath(i, j);
+
+                    if (i == j) {
+
+                        Assert.assertTrue(path == null);
+
+                    } else {
+
+                        Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                        Assert.assertEquals(expected.length(), path.length());
+
+                        // Only the seeds not finished are written again
+                        if (i < j && j >= nFinished) {
+
+                            expectedLength += PathFile.getRecordSize(path.length());
+
+                        }
+                    }
+                }
+            }
+
+            Assert.assertEquals(expectedLength, testFile.length());
+
+        }
+
+        for (File file : new File[]{referenceFile, testFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
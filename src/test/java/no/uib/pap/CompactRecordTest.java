@@ -0,0 +1,133 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.PathFile;
+import no.uib.pap.pathfinder.io.path.PathFileMerger;
+import no.uib.pap.pathfinder.io.path.RecordEncoding;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that paths stored in compact encoding are the same as in
+ * plain encoding.
+ *
+ * @author Marc Vaudel
+ */
+public class CompactRecordTest extends TestCase {
+
+    public synchronized void testCompactRecords() throws IOException {
+
+        Graph graph = NetworkPool.getTestGraphDirected();
+        int nVertices = graph.vertices.length;
+        int nShards = 2;
+
+        File referenceFile = new File("src/test/resources/testCompactReference");
+        File compactFile = new File("src/test/resources/testCompact");
+        File mergedFile = new File("src/test/resources/testCompactMerged");
+        File[] shardFiles = new File[nShards];
+
+        ShortestPath shortestPath = new ShortestPath(graph, referenceFile);
+        shortestPath.computeMatrix(2);
+
+        shortestPath = new ShortestPath(graph, compactFile);
+        shortestPath.setRecordEncoding(RecordEncoding.COMPACT);
+        shortestPath.computeMatrix(2);
+
+        for (int shard = 0; shard < nShards; shard++) {
+
+            shardFiles[shard] = new File("src/test/resources/testCompactShard" + shard);
+
+            shortestPath = new ShortestPath(graph, shardFiles[shard]);
+            shortestPath.setRecordEncoding(RecordEncoding.COMPACT);
+            shortestPath.setShard(shard, nShards);
+            shortestPath.computeMatrix(2);
+
+        }
+
+        PathFileMerger.merge(shardFiles, mergedFile, null, false);
+
+        Assert.assertTrue(compactFile.length() < referenceFile.length());
+
+        try (PathProvider referenceProvider = new PathProvider(referenceFile);
+                PathProvider compactProvider = new PathProvider(compactFile);
+                PathProvider mergedProvider = new PathProvider(mergedFile)) {
+
+            Assert.assertEquals(RecordEncoding.COMPACT, compactProvider.header.encoding);
+            Assert.assertEquals(RecordEncoding.COMPACT, mergedProvider.header.encoding);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    Path expected = referenceProvider.getPath(i, j);
+
+                    for (PathProvider pathProvider : new PathProvider[]{compactProvider, mergedProvider}) {
+
+                        Path path = pathProvider.getPath(i, j);
+
+                        if (expected == null) {
+
+                            Assert.assertTrue(path == null);
+
+                        } else {
+
+                            Assert.assertEquals((float) expected.getWeight(), path.getWeight(), 0.0);
+                            Assert.assertEquals(expected.length(), path.length());
+
+                            for (int k = 0; k < expected.length(); k++) {
+
+                                Assert.assertEquals(expected.getPath()[k], path.getPath()[k]);
+
+                            }
+                        }
+                    }
+                }
+            }
+
+            // Paths read through the channel of the file being written
+            PathFile pathFile = new PathFile(compactFile, compactProvider.header, true);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    Path expected = referenceProvider.getPath(i, j);
+                    Path path = pathFile.getPath(i, j);
+
+                    if (expected == null) {
+
+                        Assert.assertTrue(path == null);
+
+                    } else {
+
+                        Assert.assertEquals(expected.length(), path.length());
+
+                        for (int k = 0; k < expected.length(); k++) {
+
+                            Assert.assertEquals(expected.getPath()[k], path.getPath()[k]);
+
+                        }
+                    }
+                }
+            }
+
+            pathFile.close();
+
+        }
+
+        for (File file : new File[]{referenceFile, compactFile, mergedFile, shardFiles[0], shardFiles[1]}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
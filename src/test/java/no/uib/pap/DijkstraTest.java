@@ -0,0 +1,219 @@
+package no.uib.pap;
+
+import java.io.File;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.Dijkstra;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.io.path.SeedPathFile;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.util.IndexedHeap;
+
+/**
+ * This class tests the tie-breaking of the search and the limit on the
+ * length of the paths.
+ *
+ * @author Marc Vaudel
+ */
+public class DijkstraTest extends TestCase {
+
+    public void testHeapTies() {
+
+        IndexedHeap heap = new IndexedHeap(4);
+
+        heap.offer(0, 1.0, 4);
+        heap.offer(1, 1.0, 2);
+        heap.offer(2, 0.5, 6);
+        heap.offer(3, 1.0, 3);
+
+        // Equal weights are polled by increasing length
+        Assert.assertEquals(2, heap.poll());
+        Assert.assertEquals(1, heap.poll());
+        Assert.assertEquals(3, heap.poll());
+        Assert.assertEquals(0, heap.poll());
+        Assert.assertTrue(heap.isEmpty());
+
+        // Offering a vertex again updates its key
+        heap.offer(0, 1.0, 4);
+        heap.offer(1, 1.0, 3);
+        heap.offer(0, 1.0, 2);
+
+        Assert.assertEquals(2, heap.size());
+        Assert.assertEquals(0, heap.poll());
+        Assert.assertEquals(1, heap.poll());
+
+    }
+
+    public void testPathTies() {
+
+        // Two paths of weight 2.0 from 0 to 1: 0-2-3-1 found first, and the shorter 0-4-1
+        String[] names = {"0", "1", "2", "3", "4"};
+        int[][] edges = {{0, 2}, {2, 3}, {3, 1}, {0, 4}, {4, 1}};
+        double[] edgeWeights = {0.25, 0.25, 1.5, 1.0, 1.0};
+
+        CsrGraph graph = getUndirectedGraph(names, edges, edgeWeights);
+
+        Dijkstra dijkstra = new Dijkstra(graph);
+        SeedPathFile seed = dijkstra.computeShortestPaths(0, graph.getNVertices());
+
+        Assert.assertTrue(seed.hasPath(1));
+        Assert.assertEquals(2.0, seed.getWeight(1), 0.0);
+        Assert.assertEquals(3, seed.getLength(1));
+        Assert.assertEquals(4, seed.getPredecessor(1));
+
+        Assert.assertEquals(0.5, seed.getWeight(3), 0.0);
+        Assert.assertEquals(3, seed.getLength(3));
+
+    }
+
+    public synchronized void testMaxDepth() {
+
+        File testFile = new File("src/test/resources/testMaxDepth");
+
+        // The longest accepted path has maxDepth - 3 vertices
+        ShortestPath shortestPath = new ShortestPath(getChain(ShortestPath.maxDepth - 3), testFile);
+        shortestPath.computeMatrix(2);
+
+        Assert.assertFalse(shortestPath.isCancelled());
+
+        shortestPath = new ShortestPath(getChain(ShortestPath.maxDepth - 2), testFile);
+
+        try {
+
+            shortestPath.computeMatrix(2);
+            Assert.fail("No exception thrown for a path of maxDepth - 2 vertices.");
+
+        } catch (RuntimeException e) {
+
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            Assert.assertTrue(e.getCause().getMessage().startsWith("Long path"));
+
+        }
+
+        Assert.assertTrue(shortestPath.isCancelled());
+
+        // A heavier path within the limit is not used instead of the lightest path
+        shortestPath = new ShortestPath(getChain(ShortestPath.maxDepth - 2, 100.0), testFile);
+
+        try {
+
+            shortestPath.computeMatrix(2);
+            Assert.fail("No exception thrown for a lightest path of maxDepth - 2 vertices.");
+
+        } catch (RuntimeException e) {
+
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            Assert.assertTrue(e.getCause().getMessage().startsWith("Long path"));
+
+        }
+
+        if (!testFile.delete()) {
+
+            testFile.deleteOnExit();
+
+        }
+    }
+
+    /**
+     * Returns a graph where the given number of vertices are connected in a
+     * chain by edges of weight 1.
+     *
+     * @param nVertices the number of vertices
+     *
+     * @return the graph
+     */
+    private CsrGraph getChain(int nVertices) {
+
+        return getChain(nVertices, Double.NaN);
+
+    }
+
+    /**
+     * Returns a graph where the given number of vertices are connected in a
+     * chain by edges of weight 1, and the ends of the chain by an edge of
+     * the given weight.
+     *
+     * @param nVertices the number of vertices
+     * @param shortcutWeight the weight of the edge between the ends of the
+     * chain, NaN for no edge
+     *
+     * @return the graph
+     */
+    private CsrGraph getChain(int nVertices, double shortcutWeight) {
+
+        boolean shortcut = !Double.isNaN(shortcutWeight);
+        String[] names = new String[nVertices];
+        int[][] edges = new int[shortcut ? nVertices : nVertices - 1][];
+        double[] edgeWeights = new double[edges.length];
+
+        for (int i = 0; i < nVertices; i++) {
+
+            names[i] = Integer.toString(i);
+
+            if (i > 0) {
+
+                edges[i - 1] = new int[]{i - 1, i};
+                edgeWeights[i - 1] = 1.0;
+
+            }
+        }
+
+        if (shortcut) {
+
+            edges[nVertices - 1] = new int[]{0, nVertices - 1};
+            edgeWeights[nVertices - 1] = shortcutWeight;
+
+        }
+
+        return getUndirectedGraph(names, edges, edgeWeights);
+
+    }
+
+    /**
+     * Builds an undirected graph from a list of edges.
+     *
+     * @param names the names of the vertices
+     * @param edges the vertices of every edge
+     * @param edgeWeights the weight of every edge
+     *
+     * @return the graph
+     */
+    private CsrGraph getUndirectedGraph(String[] names, int[][] edges, double[] edgeWeights) {
+
+        int nVertices = names.length;
+        int[] offsets = new int[nVertices + 1];
+
+        for (int[] edge : edges) {
+
+            offsets[edge[0] + 1]++;
+            offsets[edge[1] + 1]++;
+
+        }
+
+        for (int i = 0; i < nVertices; i++) {
+
+            offsets[i + 1] += offsets[i];
+
+        }
+
+        int[] neighbors = new int[2 * edges.length];
+        double[] weights = new double[2 * edges.length];
+        int[] next = new int[nVertices];
+
+        for (int i = 0; i < edges.length; i++) {
+
+            for (int side = 0; side < 2; side++) {
+
+                int vertex = edges[i][side];
+                int slot = offsets[vertex] + next[vertex]++;
+
+                neighbors[slot] = edges[i][1 - side];
+                weights[slot] = edgeWeights[i];
+
+            }
+        }
+
+        return new CsrGraph(names, offsets, neighbors, weights);
+
+    }
+}
@@ -0,0 +1,134 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.DistanceProvider;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+import no.uib.pap.pathfinder.model.graph.Vertex;
+
+/**
+ * This class tests that the paths of a directed graph are stored for both
+ * directions.
+ *
+ * @author Marc Vaudel
+ */
+public class DirectedGraphTest extends TestCase {
+
+    public synchronized void testDirectedPaths() throws IOException {
+
+        Graph testGraph = NetworkPool.getTestGraphDirected();
+        int nVertices = testGraph.vertices.length;
+
+        File testFile = new File("src/test/resources/testDirectedPath");
+        File testDistanceFile = new File("src/test/resources/testDirectedDistances");
+        ShortestPath shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.setDistanceFile(testDistanceFile, false);
+        shortestPath.computeMatrix(2);
+
+        double[][] weights = getWeights(testGraph);
+
+        try (PathProvider pathProvider = new PathProvider(testFile);
+                DistanceProvider distanceProvider = new DistanceProvider(testDistanceFile)) {
+
+            Assert.assertEquals(MatrixLayout.SQUARE, pathProvider.header.layout);
+            Assert.assertEquals(MatrixLayout.SQUARE, distanceProvider.layout);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    Path path = pathProvider.getPath(i, j);
+
+                    if (i == j || weights[i][j] == Double.POSITIVE_INFINITY) {
+
+                        Assert.assertTrue(path == null);
+                        Assert.assertEquals(i == j ? 0 : -1, distanceProvider.getHopCount(i, j));
+                        Assert.assertEquals(weights[i][j], distanceProvider.getWeight(i, j), 0.0);
+
+                    } else {
+
+                        Assert.assertEquals(i, path.getStart());
+                        Assert.assertEquals(j, path.getEnd());
+                        Assert.assertEquals(weights[i][j], path.getWeight(), 0.001);
+                        Assert.assertEquals(weights[i][j], distanceProvider.getWeight(i, j), 0.001);
+                        Assert.assertEquals(path.length() - 1, distanceProvider.getHopCount(i, j));
+
+                    }
+                }
+            }
+
+            int[] vertices = {4, 0, 2, 1, 3};
+            double[] matrix = pathProvider.getWeightMatrix(vertices);
+
+            for (int i = 0; i < vertices.length; i++) {
+
+                for (int j = 0; j < vertices.length; j++) {
+
+                    Assert.assertEquals(weights[vertices[i]][vertices[j]], matrix[i * vertices.length + j], 0.001);
+
+                }
+            }
+        }
+
+        for (File file : new File[]{testFile, testDistanceFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+
+    /**
+     * Returns the weights of the shortest paths between all vertices using
+     * the Floyd-Warshall algorithm.
+     *
+     * @param graph the graph
+     *
+     * @return the weights of the shortest paths between all vertices
+     */
+    private double[][] getWeights(Graph graph) {
+
+        int nVertices = graph.vertices.length;
+        double[][] weights = new double[nVertices][nVertices];
+
+        for (int i = 0; i < nVertices; i++) {
+
+            Arrays.fill(weights[i], Double.POSITIVE_INFINITY);
+            weights[i][i] = 0.0;
+
+            Vertex vertex = graph.vertices[i];
+
+            for (int k = 0; k < vertex.neighbors.length; k++) {
+
+                int j = vertex.neighbors[k];
+                weights[i][j] = Math.min(weights[i][j], vertex.weights[k]);
+
+            }
+        }
+
+        for (int k = 0; k < nVertices; k++) {
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    weights[i][j] = Math.min(weights[i][j], weights[i][k] + weights[k][j]);
+
+                }
+            }
+        }
+
+        return weights;
+
+    }
+}
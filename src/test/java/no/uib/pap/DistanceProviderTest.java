@@ -0,0 +1,112 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.DistanceProvider;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.DistanceFile;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that the distances stored in a distance file are the
+ * same as the paths, and that other files are not read as distance files.
+ *
+ * @author Marc Vaudel
+ */
+public class DistanceProviderTest extends TestCase {
+
+    public synchronized void testDistances() throws IOException {
+
+        Graph testGraph = NetworkPool.getTestGraph();
+        int nVertices = testGraph.vertices.length;
+
+        File testFile = new File("src/test/resources/testDistanceProviderPath");
+        File testDistanceFile = new File("src/test/resources/testDistanceProvider");
+
+        // Content left by a previous run must not survive a new computation
+        try (RandomAccessFile raf = new RandomAccessFile(testDistanceFile, "rw")) {
+
+            raf.setLength(1l << 16);
+
+        }
+
+        ShortestPath shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.setDistanceFile(testDistanceFile, true);
+        shortestPath.computeMatrix(2);
+
+        Assert.assertEquals(DistanceFile.getPosition(MatrixLayout.TRIANGULAR.getNPaths(nVertices), DistanceFile.getStride(4)), testDistanceFile.length());
+
+        try (PathProvider pathProvider = new PathProvider(testFile);
+                DistanceProvider distanceProvider = new DistanceProvider(testDistanceFile)) {
+
+            Assert.assertEquals(nVertices, distanceProvider.nVertices);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    if (i == j) {
+
+                        Assert.assertEquals(0, distanceProvider.getHopCount(i, j));
+                        Assert.assertEquals(0.0, distanceProvider.getWeight(i, j), 0.0);
+
+                    } else {
+
+                        Path path = pathProvider.getPath(i, j);
+
+                        Assert.assertEquals((float) path.getWeight(), distanceProvider.getWeight(i, j), 0.0);
+                        Assert.assertEquals(path.length() - 1, distanceProvider.getHopCount(i, j));
+
+                    }
+                }
+            }
+        }
+
+        // A path file is not a distance file
+        try {
+
+            new DistanceProvider(testFile).close();
+            Assert.fail("No exception thrown for a file that is not a distance file.");
+
+        } catch (IllegalArgumentException e) {
+
+            Assert.assertEquals("Not a distance file.", e.getMessage());
+
+        }
+
+        // A distance file of another version is not read
+        try (RandomAccessFile raf = new RandomAccessFile(testDistanceFile, "rw")) {
+
+            raf.seek(4);
+            raf.writeInt(DistanceFile.VERSION + 1);
+
+        }
+
+        try {
+
+            new DistanceProvider(testDistanceFile).close();
+            Assert.fail("No exception thrown for an unsupported version.");
+
+        } catch (IllegalArgumentException e) {
+
+            Assert.assertTrue(e.getMessage().startsWith("Unsupported distance file version"));
+
+        }
+
+        for (File file : new File[]{testFile, testDistanceFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
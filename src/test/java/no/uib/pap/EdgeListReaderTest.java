@@ -0,0 +1,198 @@
+package no.uib.pap;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.io.network.EdgeListReader;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+
+/**
+ * This class tests the parsing of edge lists against the JDK number parser
+ * and the line based loader used before the byte level reader.
+ *
+ * @author Marc Vaudel
+ */
+public class EdgeListReaderTest extends TestCase {
+
+    public void testParseDouble() {
+
+        String[] values = {
+            "0", "-0", "+0", "0.0", "-0.0", "42", "-42", "+42",
+            "0.5", ".5", "5.", "-.5", "0.6989700", "0.7781513", "0.8450980",
+            "1e0", "1e-3", "1E5", "2.5e+10", "-2.5E-10", "1e22", "1e23", "1e-22", "1e-23",
+            "1e-300", "1e308", "1.7976931348623157e308", "4.9e-324", "1e400", "1e-400",
+            "123456789012345", "1234567890123456", "12345678901234567890",
+            "0.123456789012345", "0.1234567890123456", "0.12345678901234567890123",
+            "9007199254740993", "000000000000000000012.5", "0.000000000000000000001",
+            "3.14159265358979323846", "NaN", "Infinity", "-Infinity"
+        };
+
+        for (String value : values) {
+
+            byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+
+            // The token is followed by other bytes in the read buffer
+            byte[] buffer = new byte[bytes.length + 3];
+            System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+            buffer[bytes.length] = '9';
+            buffer[bytes.length + 1] = 'e';
+            buffer[bytes.length + 2] = '1';
+
+            long expected = Double.doubleToLongBits(Double.parseDouble(value));
+
+            Assert.assertEquals(value, expected, Double.doubleToLongBits(EdgeListReader.parseDouble(bytes, bytes.length)));
+            Assert.assertEquals(value, expected, Double.doubleToLongBits(EdgeListReader.parseDouble(buffer, bytes.length)));
+
+        }
+    }
+
+    public synchronized void testPreviousLoader() throws IOException {
+
+        File dataFrameFile = new File("src/test/resources/testEdgeList.gz");
+
+        String content = "from to weight\n"
+                + "A B 0.6989700\n"
+                + "B C 0.7781513\n"
+                + "C A 1e-3\n"
+                + "A D 2.5E+1\n"
+                + "D E 12345678901234567890\n"
+                + "E A 0.5\r\n"
+                + "A A 0.1\n"
+                + "B A -0.25\n"
+                + "F E .75\n"
+                + "Gene-1 F 3\n"
+                + "A C 0.8450980";
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(dataFrameFile)), StandardCharsets.UTF_8)) {
+
+            writer.write(content);
+
+        }
+
+        CsrGraph expected = readPrevious(dataFrameFile);
+        CsrGraph graph = EdgeListReader.read(dataFrameFile, false);
+
+        Assert.assertEquals(expected.getNVertices(), graph.getNVertices());
+        Assert.assertEquals(expected.getNEdges(), graph.getNEdges());
+
+        for (int vertex = 0; vertex < expected.getNVertices(); vertex++) {
+
+            Assert.assertEquals(expected.names[vertex], graph.names[vertex]);
+            Assert.assertEquals(expected.offsets[vertex + 1], graph.offsets[vertex + 1]);
+
+        }
+
+        for (int edge = 0; edge < expected.getNEdges(); edge++) {
+
+            Assert.assertEquals(expected.neighbors[edge], graph.neighbors[edge]);
+            Assert.assertEquals(expected.getWeight(edge), graph.getWeight(edge), 0.0);
+
+        }
+
+        if (!dataFrameFile.delete()) {
+
+            dataFrameFile.deleteOnExit();
+
+        }
+    }
+
+    /**
+     * Reads an undirected graph from a gzipped data frame the way it was
+     * read before the byte level reader: lines are split and parsed with
+     * Double.parseDouble, vertices are indexed by decreasing degree and then
+     * by name, neighbors are sorted by name.
+     *
+     * @param file the data frame
+     *
+     * @return the graph
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * the file
+     */
+    private CsrGraph readPrevious(File file) throws IOException {
+
+        HashMap<String, HashMap<String, Double>> edgesMap = new HashMap<>();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+
+                String[] lineSplit = line.split(" ");
+                String from = lineSplit[0];
+                String to = lineSplit[1];
+                double weight = Double.parseDouble(lineSplit[2]);
+
+                edgesMap.computeIfAbsent(from, key -> new HashMap<>(1)).put(to, weight);
+                edgesMap.computeIfAbsent(to, key -> new HashMap<>(1)).put(from, weight);
+
+            }
+        }
+
+        TreeMap<Integer, TreeSet<String>> degreeMap = new TreeMap<>();
+
+        for (Entry<String, HashMap<String, Double>> entry : edgesMap.entrySet()) {
+
+            degreeMap.computeIfAbsent(entry.getValue().size(), key -> new TreeSet<>()).add(entry.getKey());
+
+        }
+
+        int nVertices = edgesMap.size();
+        String[] names = new String[nVertices];
+        HashMap<String, Integer> indexes = new HashMap<>();
+
+        for (TreeSet<String> verticesAtDegree : degreeMap.descendingMap().values()) {
+
+            for (String name : verticesAtDegree) {
+
+                names[indexes.size()] = name;
+                indexes.put(name, indexes.size());
+
+            }
+        }
+
+        int nEdges = 0;
+
+        for (HashMap<String, Double> vertexEdges : edgesMap.values()) {
+
+            nEdges += vertexEdges.size();
+
+        }
+
+        int[] offsets = new int[nVertices + 1];
+        int[] neighbors = new int[nEdges];
+        double[] weights = new double[nEdges];
+        int edge = 0;
+
+        for (int vertex = 0; vertex < nVertices; vertex++) {
+
+            for (Entry<String, Double> entry : new TreeMap<>(edgesMap.get(names[vertex])).entrySet()) {
+
+                neighbors[edge] = indexes.get(entry.getKey());
+                weights[edge] = entry.getValue();
+                edge++;
+
+            }
+
+            offsets[vertex + 1] = edge;
+
+        }
+
+        return new CsrGraph(names, offsets, neighbors, weights);
+
+    }
+}
@@ -0,0 +1,39 @@
+package no.uib.pap;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.io.path.MatrixLayout;
+import no.uib.pap.pathfinder.io.path.PathFileHeader;
+
+/**
+ * This class tests that the indexes of the paths do not overflow for large
+ * networks.
+ *
+ * @author Marc Vaudel
+ */
+public class MatrixIndexTest extends TestCase {
+
+    public void testLargeIndexes() {
+
+        int nVertices = 100000;
+
+        for (MatrixLayout layout : MatrixLayout.values()) {
+
+            long nPath = layout.getNPaths(nVertices);
+            PathFileHeader header = new PathFileHeader(0l, layout, nVertices);
+
+            Assert.assertTrue(nPath > Integer.MAX_VALUE);
+            Assert.assertEquals(nPath, header.nPath);
+
+            // The last pair of the matrix is stored at the last index
+            long lastIndex = layout == MatrixLayout.TRIANGULAR ? header.getIndex(nVertices - 2, nVertices - 1) : header.getIndex(nVertices - 1, nVertices - 2);
+
+            Assert.assertEquals(nPath - 1, lastIndex);
+            Assert.assertEquals(PathFileHeader.HEADER_SIZE + 8 * nPath, header.getIndexPosition(nPath));
+
+            // Consecutive pairs get consecutive indexes
+            Assert.assertEquals(lastIndex - 1, layout == MatrixLayout.TRIANGULAR ? header.getIndex(nVertices - 3, nVertices - 1) : header.getIndex(nVertices - 1, nVertices - 3));
+
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathCache;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests the cache of paths.
+ *
+ * @author Marc Vaudel
+ */
+public class PathCacheTest extends TestCase {
+
+    public void testEviction() {
+
+        int capacity = 4 * PathCache.N_SEGMENTS;
+        PathCache cache = new PathCache(capacity);
+
+        // Hot pairs are queried twice and promoted to the protected lists
+        int nHot = PathCache.N_SEGMENTS;
+
+        for (long key = 0; key < nHot; key++) {
+
+            cache.put(key, new Path(new int[]{(int) key}, key));
+            Assert.assertTrue(cache.get(key) != null);
+
+        }
+
+        // A scan of many pairs queried once
+        int nScan = 100 * capacity;
+
+        for (long key = nHot; key < nHot + nScan; key++) {
+
+            Assert.assertTrue(cache.get(key) == null);
+            cache.put(key, new Path(new int[]{(int) key}, key));
+
+        }
+
+        Assert.assertTrue(cache.size() <= capacity);
+        Assert.assertEquals(nHot + nScan - cache.size(), cache.getEvictions());
+
+        // Every pair still cached maps to its own path
+        int nCached = 0;
+
+        for (long key = 0; key < nHot + nScan; key++) {
+
+            Path path = cache.get(key);
+
+            if (path != null) {
+
+                Assert.assertEquals(key, path.getStart());
+                nCached++;
+
+            }
+        }
+
+        Assert.assertEquals(cache.size(), nCached);
+        Assert.assertEquals(nHot + nCached, cache.getHits());
+        Assert.assertEquals(nScan + nHot + nScan - nCached, cache.getMisses());
+
+    }
+
+    public synchronized void testCachedProvider() throws IOException {
+
+        Graph testGraph = NetworkPool.getTestGraph();
+        int nVertices = testGraph.vertices.length;
+
+        File testFile = new File("src/test/resources/testCachePath");
+        ShortestPath shortestPath = new ShortestPath(testGraph, testFile);
+        shortestPath.computeMatrix(2);
+
+        try (PathProvider pathProvider = new PathProvider(testFile);
+                PathProvider cachedProvider = new PathProvider(testFile)) {
+
+            cachedProvider.setCache(PathCache.N_SEGMENTS);
+
+            for (int round = 0; round < 2; round++) {
+
+                for (int i = 0; i < nVertices; i++) {
+
+                    for (int j = 0; j < nVertices; j++) {
+
+                        Path expected = pathProvider.getPath(i, j);
+                        Path path = cachedProvider.getPath(i, j);
+
+                        if (expected == null) {
+
+                            Assert.assertTrue(path == null);
+
+                        } else {
+
+                            Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                            Assert.assertEquals(expected.getStart(), path.getStart());
+                            Assert.assertEquals(expected.getEnd(), path.getEnd());
+
+                        }
+                    }
+                }
+            }
+
+            PathCache cache = cachedProvider.getCache();
+
+            Assert.assertTrue(cache.getHits() > 0);
+            Assert.assertEquals(2 * nVertices * (nVertices - 1), cache.getHits() + cache.getMisses());
+
+        }
+
+        if (!testFile.delete()) {
+
+            testFile.deleteOnExit();
+
+        }
+    }
+}
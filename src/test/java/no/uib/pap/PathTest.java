@@ -0,0 +1,46 @@
+package no.uib.pap;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests the reversal of paths.
+ *
+ * @author Marc Vaudel
+ */
+public class PathTest extends TestCase {
+
+    public void testReverse() {
+
+        for (int length = 1; length <= 5; length++) {
+
+            int[] vertices = new int[length];
+
+            for (int i = 0; i < length; i++) {
+
+                vertices[i] = 10 * i;
+
+            }
+
+            Path path = new Path(vertices, 1.5);
+            Path reversed = path.reverse();
+
+            Assert.assertTrue(reversed != path);
+            Assert.assertEquals(0, path.getStart());
+
+            Path reversedInPlace = path.reverseInPlace();
+
+            Assert.assertTrue(reversedInPlace == path);
+            Assert.assertTrue(path.getPath() == vertices);
+            Assert.assertEquals(1.5, path.getWeight(), 0.0);
+
+            for (int i = 0; i < length; i++) {
+
+                Assert.assertEquals(10 * (length - 1 - i), reversed.getPath()[i]);
+                Assert.assertEquals(10 * (length - 1 - i), path.getPath()[i]);
+
+            }
+        }
+    }
+}
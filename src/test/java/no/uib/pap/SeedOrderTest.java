@@ -0,0 +1,85 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.SeedOrder;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that the order of the seeds does not change the paths.
+ *
+ * @author Marc Vaudel
+ */
+public class SeedOrderTest extends TestCase {
+
+    public synchronized void testSeedOrders() throws IOException {
+
+        CsrGraph testGraph = CsrGraph.fromGraph(NetworkPool.getTestGraph(), false);
+        int nVertices = testGraph.getNVertices();
+
+        File referenceFile = new File("src/test/resources/testSeedOrderReference");
+        File testFile = new File("src/test/resources/testSeedOrder");
+
+        ShortestPath shortestPath = new ShortestPath(testGraph, referenceFile);
+        shortestPath.computeMatrix(2);
+
+        for (SeedOrder seedOrder : SeedOrder.values()) {
+
+            // Every order must be a permutation of the vertices
+            int[] order = seedOrder.getOrder(testGraph);
+            boolean[] found = new boolean[nVertices];
+
+            Assert.assertEquals(nVertices, order.length);
+
+            for (int origin : order) {
+
+                Assert.assertFalse(found[origin]);
+                found[origin] = true;
+
+            }
+
+            testFile.delete();
+
+            shortestPath = new ShortestPath(testGraph, testFile);
+            shortestPath.setSeedOrder(seedOrder);
+            shortestPath.computeMatrix(3);
+
+            long[] runtimes = shortestPath.getSeedRuntimes();
+
+            try (PathProvider referenceProvider = new PathProvider(referenceFile);
+                    PathProvider pathProvider = new PathProvider(testFile)) {
+
+                for (int i = 0; i < nVertices; i++) {
+
+                    // In undirected graphs the first vertex has no seed to compute
+                    Assert.assertTrue(i == 0 || runtimes[i] > 0);
+
+                    for (int j = i + 1; j < nVertices; j++) {
+
+                        Path expected = referenceProvider.getPath(i, j);
+                        Path path = pathProvider.getPath(i, j);
+
+                        Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                        Assert.assertEquals(expected.length(), path.length());
+
+                    }
+                }
+            }
+        }
+
+        for (File file : new File[]{referenceFile, testFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.DistanceProvider;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.io.path.PathFileMerger;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that merging the shards of a computation gives the same
+ * paths as the computation in one go.
+ *
+ * @author Marc Vaudel
+ */
+public class ShardTest extends TestCase {
+
+    public synchronized void testUndirectedShards() throws IOException {
+
+        testShards(NetworkPool.getTestGraph(), "testShardUndirected");
+
+    }
+
+    public synchronized void testDirectedShards() throws IOException {
+
+        testShards(NetworkPool.getTestGraphDirected(), "testShardDirected");
+
+    }
+
+    public synchronized void testShardsOfDifferentGraphs() throws IOException {
+
+        // Same number of vertices, the weight of the edge between 4 and 5 differs
+        Graph graph = NetworkPool.getTestGraph();
+        Graph otherGraph = NetworkPool.getTestGraph();
+        otherGraph.vertices[3].weights[3] = 1.5;
+        otherGraph.vertices[4].weights[3] = 1.5;
+
+        File mergedFile = new File("src/test/resources/testShardGraphsMerged");
+        File[] shardFiles = new File[]{
+            new File("src/test/resources/testShardGraphsShard0"),
+            new File("src/test/resources/testShardGraphsShard1")
+        };
+
+        ShortestPath shortestPath = new ShortestPath(graph, shardFiles[0]);
+        shortestPath.setShard(0, 2);
+        shortestPath.computeMatrix(2);
+
+        shortestPath = new ShortestPath(otherGraph, shardFiles[1]);
+        shortestPath.setShard(1, 2);
+        shortestPath.computeMatrix(2);
+
+        try {
+
+            PathFileMerger.merge(shardFiles, mergedFile, null, false);
+            Assert.fail("No exception thrown for shards of different graphs.");
+
+        } catch (IllegalArgumentException e) {
+
+            Assert.assertTrue(e.getMessage().contains("same graph"));
+
+        }
+
+        for (File file : new File[]{mergedFile, shardFiles[0], shardFiles[1]}) {
+
+            if (file.exists() && !file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+
+    /**
+     * Computes the matrix of the given graph in two shards, merges them, and
+     * compares the result to the matrix computed in one go.
+     *
+     * @param graph the graph
+     * @param name the prefix of the test files
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * or writing the files
+     */
+    private void testShards(Graph graph, String name) throws IOException {
+
+        int nVertices = graph.vertices.length;
+        int nShards = 2;
+
+        File referenceFile = new File("src/test/resources/" + name + "Reference");
+        File mergedFile = new File("src/test/resources/" + name + "Merged");
+        File distanceFile = new File("src/test/resources/" + name + "Distances");
+        File[] shardFiles = new File[nShards];
+
+        ShortestPath shortestPath = new ShortestPath(graph, referenceFile);
+        shortestPath.computeMatrix(2);
+
+        for (int shard = 0; shard < nShards; shard++) {
+
+            shardFiles[shard] = new File("src/test/resources/" + name + "Shard" + shard);
+
+            shortestPath = new ShortestPath(graph, shardFiles[shard]);
+            shortestPath.setShard(shard, nShards);
+            shortestPath.computeMatrix(2);
+
+        }
+
+        PathFileMerger.merge(shardFiles, mergedFile, distanceFile, false);
+
+        try (PathProvider referenceProvider = new PathProvider(referenceFile);
+                PathProvider mergedProvider = new PathProvider(mergedFile);
+                DistanceProvider distanceProvider = new DistanceProvider(distanceFile)) {
+
+            Assert.assertFalse(mergedProvider.header.isPartial());
+            Assert.assertEquals(referenceProvider.header.layout, mergedProvider.header.layout);
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    Path expected = referenceProvider.getPath(i, j);
+                    Path path = mergedProvider.getPath(i, j);
+
+                    if (expected == null) {
+
+                        Assert.assertTrue(path == null);
+
+                        if (i != j) {
+
+                            Assert.assertEquals(-1, distanceProvider.getHopCount(i, j));
+
+                        }
+
+                    } else {
+
+                        Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                        Assert.assertEquals(expected.getWeight(), distanceProvider.getWeight(i, j), 0.0);
+                        Assert.assertEquals(expected.length() - 1, distanceProvider.getHopCount(i, j));
+
+                        for (int k = 0; k < expected.length(); k++) {
+
+                            Assert.assertEquals(expected.getPath()[k], path.getPath()[k]);
+
+                        }
+                    }
+                }
+            }
+        }
+
+        for (File file : new File[]{referenceFile, mergedFile, distanceFile, shardFiles[0], shardFiles[1]}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.io.network.GraphSnapshot;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.CsrGraph;
+
+/**
+ * This class tests that graphs are restored from their snapshot, and that
+ * stale or corrupted snapshots are not used.
+ *
+ * @author Marc Vaudel
+ */
+public class SnapshotTest extends TestCase {
+
+    public synchronized void testRoundTrip() throws IOException {
+
+        File dataFrameFile = new File("src/test/resources/testSnapshotDataFrame.gz");
+        File snapshotFile = new File("src/test/resources/testSnapshot");
+
+        writeDataFrame(dataFrameFile, "from to weight\nA B 0.5\nB C 1.25\nA C 2\nC D 1e-3\n");
+
+        CsrGraph parsedGraph = NetworkPool.getCsrGraphFromSnapshot(dataFrameFile, snapshotFile, false);
+
+        Assert.assertTrue(snapshotFile.exists());
+
+        CsrGraph snapshotGraph = GraphSnapshot.read(snapshotFile, dataFrameFile, false);
+
+        assertSameGraph(parsedGraph, snapshotGraph);
+
+        // The snapshot of the undirected graph cannot be used for the directed graph
+        Assert.assertTrue(GraphSnapshot.read(snapshotFile, dataFrameFile, true) == null);
+
+        // A truncated snapshot is not used
+        try (RandomAccessFile raf = new RandomAccessFile(snapshotFile, "rw")) {
+
+            raf.setLength(raf.length() - 1);
+
+        }
+
+        Assert.assertTrue(GraphSnapshot.read(snapshotFile, dataFrameFile, false) == null);
+
+        // A corrupted snapshot is not used
+        GraphSnapshot.write(parsedGraph, snapshotFile, dataFrameFile, false);
+
+        try (RandomAccessFile raf = new RandomAccessFile(snapshotFile, "rw")) {
+
+            long position = GraphSnapshot.HEADER_SIZE + 4;
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+
+        }
+
+        Assert.assertTrue(GraphSnapshot.read(snapshotFile, dataFrameFile, false) == null);
+
+        // The graph is parsed again and the snapshot replaced
+        snapshotGraph = NetworkPool.getCsrGraphFromSnapshot(dataFrameFile, snapshotFile, false);
+        assertSameGraph(parsedGraph, snapshotGraph);
+        assertSameGraph(parsedGraph, GraphSnapshot.read(snapshotFile, dataFrameFile, false));
+
+        deleteFiles(dataFrameFile, snapshotFile);
+
+    }
+
+    public synchronized void testStaleSource() throws IOException {
+
+        File dataFrameFile = new File("src/test/resources/testSnapshotStaleDataFrame.gz");
+        File snapshotFile = new File("src/test/resources/testSnapshotStale");
+
+        writeDataFrame(dataFrameFile, "from to weight\nA B 0.5\nB C 1.25\n");
+
+        CsrGraph graph = NetworkPool.getCsrGraphFromSnapshot(dataFrameFile, snapshotFile, false);
+
+        Assert.assertEquals(3, graph.getNVertices());
+
+        writeDataFrame(dataFrameFile, "from to weight\nA B 0.5\nB C 1.25\nC D 0.75\n");
+
+        Assert.assertTrue(GraphSnapshot.read(snapshotFile, dataFrameFile, false) == null);
+
+        graph = NetworkPool.getCsrGraphFromSnapshot(dataFrameFile, snapshotFile, false);
+
+        Assert.assertEquals(4, graph.getNVertices());
+        assertSameGraph(graph, GraphSnapshot.read(snapshotFile, dataFrameFile, false));
+
+        deleteFiles(dataFrameFile, snapshotFile);
+
+    }
+
+    /**
+     * Writes a gzipped data frame.
+     *
+     * @param file the file
+     * @param content the content of the data frame
+     *
+     * @throws IOException exception thrown if an error occurred while writing
+     * the file
+     */
+    private void writeDataFrame(File file, String content) throws IOException {
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8)) {
+
+            writer.write(content);
+
+        }
+    }
+
+    /**
+     * Asserts that two graphs have the same vertices and edges.
+     *
+     * @param expected the expected graph
+     * @param graph the graph to test
+     */
+    private void assertSameGraph(CsrGraph expected, CsrGraph graph) {
+
+        Assert.assertTrue(graph != null);
+        Assert.assertEquals(expected.getNVertices(), graph.getNVertices());
+        Assert.assertEquals(expected.getNEdges(), graph.getNEdges());
+
+        for (int i = 0; i < expected.getNVertices(); i++) {
+
+            Assert.assertEquals(expected.names[i], graph.names[i]);
+            Assert.assertEquals(expected.offsets[i + 1], graph.offsets[i + 1]);
+
+        }
+
+        for (int i = 0; i < expected.getNEdges(); i++) {
+
+            Assert.assertEquals(expected.neighbors[i], graph.neighbors[i]);
+            Assert.assertEquals(expected.getWeight(i), graph.getWeight(i), 0.0);
+
+        }
+    }
+
+    /**
+     * Deletes the test files.
+     *
+     * @param files the files to delete
+     */
+    private void deleteFiles(File... files) {
+
+        for (File file : files) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}
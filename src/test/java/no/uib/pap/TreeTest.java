@@ -0,0 +1,104 @@
+package no.uib.pap;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import no.uib.pap.pathfinder.ShortestPath;
+import no.uib.pap.pathfinder.api.PathProvider;
+import no.uib.pap.pathfinder.api.TreeProvider;
+import no.uib.pap.pathfinder.io.network.NetworkPool;
+import no.uib.pap.pathfinder.model.graph.Graph;
+import no.uib.pap.pathfinder.model.graph.Path;
+
+/**
+ * This class tests that the paths reconstructed from the shortest path trees
+ * are the paths of the path file.
+ *
+ * @author Marc Vaudel
+ */
+public class TreeTest extends TestCase {
+
+    public synchronized void testUndirectedTrees() throws IOException {
+
+        testTrees(NetworkPool.getTestGraph(), "testTreeUndirected");
+
+    }
+
+    public synchronized void testDirectedTrees() throws IOException {
+
+        testTrees(NetworkPool.getTestGraphDirected(), "testTreeDirected");
+
+    }
+
+    /**
+     * Computes the paths and trees of the given graph and compares the paths
+     * of both files.
+     *
+     * @param graph the graph
+     * @param name the prefix of the test files
+     *
+     * @throws IOException exception thrown if an error occurred while reading
+     * or writing the files
+     */
+    private void testTrees(Graph graph, String name) throws IOException {
+
+        int nVertices = graph.vertices.length;
+
+        File pathFile = new File("src/test/resources/" + name + "Paths");
+        File treeFile = new File("src/test/resources/" + name);
+        File treeOnlyFile = new File("src/test/resources/" + name + "Only");
+
+        ShortestPath shortestPath = new ShortestPath(graph, pathFile);
+        shortestPath.setTreeFile(treeFile, false);
+        shortestPath.computeMatrix(2);
+
+        shortestPath = new ShortestPath(graph, null);
+        shortestPath.setTreeFile(treeOnlyFile, false);
+        shortestPath.computeMatrix(2);
+
+        try (PathProvider pathProvider = new PathProvider(pathFile);
+                TreeProvider treeProvider = new TreeProvider(treeFile);
+                TreeProvider treeOnlyProvider = new TreeProvider(treeOnlyFile)) {
+
+            for (int i = 0; i < nVertices; i++) {
+
+                for (int j = 0; j < nVertices; j++) {
+
+                    Path expected = pathProvider.getPath(i, j);
+
+                    for (TreeProvider provider : new TreeProvider[]{treeProvider, treeOnlyProvider}) {
+
+                        Path path = provider.getPath(i, j);
+
+                        if (expected == null) {
+
+                            Assert.assertTrue(path == null);
+                            Assert.assertEquals(i == j ? 0.0 : Double.POSITIVE_INFINITY, provider.getWeight(i, j), 0.0);
+
+                        } else {
+
+                            Assert.assertEquals(expected.getWeight(), path.getWeight(), 0.0);
+                            Assert.assertEquals(expected.length(), path.length());
+
+                            for (int k = 0; k < expected.length(); k++) {
+
+                                Assert.assertEquals(expected.getPath()[k], path.getPath()[k]);
+
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (File file : new File[]{pathFile, treeFile, treeOnlyFile}) {
+
+            if (!file.delete()) {
+
+                file.deleteOnExit();
+
+            }
+        }
+    }
+}